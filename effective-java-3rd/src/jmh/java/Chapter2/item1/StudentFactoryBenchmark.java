@@ -0,0 +1,72 @@
+package Chapter2.item1;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 같은 id 들을 되풀이해 조회할 때 withId 와 internWithId 를 비교한다.
+ * -prof gc 로 돌리면 gc.alloc.rate.norm 에서 호출당 할당량 차이가 보인다.
+ * 끝나면 캐시 적중률을 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class StudentFactoryBenchmark {
+
+    @Param("10000")
+    int ids;
+
+    String[] idPool;
+
+    @Setup
+    public void setUp() {
+        idPool = new String[ids];
+        for (int i = 0; i < ids; i++) {
+            idPool[i] = "student-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        StudentInterner interner = Student.interner();
+        System.out.printf("%nintern hit rate %.4f (%d hits, %d misses)%n",
+            interner.hitRate(), interner.hitCount(), interner.missCount());
+    }
+
+    @Benchmark
+    public Student withId(Cursor cursor) {
+        return Student.withId(idPool[cursor.next(ids)]);
+    }
+
+    @Benchmark
+    public Student internWithId(Cursor cursor) {
+        return Student.internWithId(idPool[cursor.next(ids)]);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int position;
+
+        int next(int bound) {
+            position = position + 1 == bound ? 0 : position + 1;
+            return position;
+        }
+    }
+}
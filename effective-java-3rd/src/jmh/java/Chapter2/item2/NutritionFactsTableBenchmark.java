@@ -0,0 +1,81 @@
+package Chapter2.item2;
+
+import Chapter2.item2.NutritionFactsTable.Column;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 제품 rows 개짜리 NutritionFactsTable 에서 한 열을 집계하는 시간과, 같은 크기의 CSV 를 읽어 들이는 시간.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class NutritionFactsTableBenchmark {
+
+    @Param("1000000")
+    int rows;
+
+    NutritionFactsTable table;
+    String csv;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        table = new NutritionFactsTable(rows);
+        StringBuilder text = new StringBuilder(rows * 24).append("servingSize,servings,calories,fat,sodium,carbohydrate\n");
+        for (int i = 0; i < rows; i++) {
+            NutritionFactsByBuilder.Builder builder = new NutritionFactsByBuilder.Builder(
+                50 + random.nextInt(450), 1 + random.nextInt(10))
+                .calories(random.nextInt(800))
+                .fat(random.nextInt(60))
+                .sodium(random.nextInt(2000))
+                .carbohydrate(random.nextInt(120));
+            int row = builder.appendTo(table);
+            for (Column column : Column.values()) {
+                text.append(table.get(row, column)).append(column == Column.CARBOHYDRATE ? '\n' : ',');
+            }
+        }
+        csv = text.toString();
+    }
+
+    @Benchmark
+    public long sumCalories() {
+        return table.sum(Column.CALORIES);
+    }
+
+    @Benchmark
+    public int maxSodium() {
+        return table.max(Column.SODIUM);
+    }
+
+    @Benchmark
+    public int minFat() {
+        return table.min(Column.FAT);
+    }
+
+    @Benchmark
+    public int countHighSodium() {
+        return table.countAtLeast(Column.SODIUM, 1500);
+    }
+
+    @Benchmark
+    public int loadCsv() throws IOException {
+        return NutritionFactsCsv.read(new StringReader(csv), new NutritionFactsTable(rows)).size();
+    }
+}
@@ -0,0 +1,60 @@
+package Chapter2.item5;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 벤치마크용 단어. 흔한 자모 조합으로 만든 2~4 음절 단어이고, 오타는 단어의 자모 하나를 바꿔 만든다.
+ */
+final class BenchmarkWords {
+
+    private static final int[] VOWELS = {0, 4, 8, 13, 18, 20, 1, 5, 12, 17};
+    private static final int[] TAILS = {0, 0, 0, 1, 4, 8, 16, 21};
+
+    private BenchmarkWords() {
+    }
+
+    static List<String> generate(int count, Random random) {
+        Set<String> words = new HashSet<>(count * 2);
+        while (words.size() < count) {
+            words.add(randomWord(random));
+        }
+        return new ArrayList<>(words);
+    }
+
+    static String typo(String word, Random random) {
+        int at = random.nextInt(word.length());
+        int index = word.charAt(at) - 0xAC00;
+        int lead = index / (21 * 28);
+        int vowel = index % (21 * 28) / 28;
+        int tail = index % 28;
+        switch (random.nextInt(3)) {
+            case 0:
+                lead = (lead + 1) % 19;
+                break;
+            case 1:
+                vowel = (vowel + 1) % 21;
+                break;
+            default:
+                tail = tail == 0 ? 4 : 0;
+        }
+        return word.substring(0, at) + syllable(lead, vowel, tail) + word.substring(at + 1);
+    }
+
+    private static String randomWord(Random random) {
+        int length = 2 + random.nextInt(3);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(syllable(random.nextInt(19), VOWELS[random.nextInt(VOWELS.length)],
+                TAILS[random.nextInt(TAILS.length)]));
+        }
+        return word.toString();
+    }
+
+    private static char syllable(int lead, int vowel, int tail) {
+        return (char) (0xAC00 + (lead * 21 + vowel) * 28 + tail);
+    }
+}
@@ -0,0 +1,77 @@
+package Chapter2.item5;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 풀 크기에 따라 checkAll 처리량이 얼마나 늘어나는지 본다.
+ * 문서는 사전 단어를 뽑아 만든 약 2천 토큰짜리이고, 토큰의 2% 정도가 오타다.
+ * 단어를 2만 개 가운데서 뽑으므로 한 문서 안에서도 같은 토큰이 자주 되풀이된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BulkSpellCheckerBenchmark {
+
+    private static final int DOCUMENTS = 256;
+    private static final int TOKENS_PER_DOCUMENT = 2000;
+    private static final int VOCABULARY = 20000;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    int threads;
+
+    ForkJoinPool pool;
+    BulkSpellChecker checker;
+    List<String> documents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> words = BenchmarkWords.generate(100000, random);
+        pool = new ForkJoinPool(threads);
+        checker = new BulkSpellChecker(new SpellChecker(new KoreanDictionary(words)), pool);
+
+        documents = new ArrayList<>(DOCUMENTS);
+        for (int d = 0; d < DOCUMENTS; d++) {
+            StringBuilder document = new StringBuilder(TOKENS_PER_DOCUMENT * 5);
+            for (int t = 0; t < TOKENS_PER_DOCUMENT; t++) {
+                String word = words.get(random.nextInt(VOCABULARY));
+                document.append(random.nextInt(50) == 0 ? BenchmarkWords.typo(word, random) : word)
+                    .append(t % 12 == 11 ? ".\n" : " ");
+            }
+            documents.add(document.toString());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * 한 번에 문서 DOCUMENTS 개를 검사한다. 초당 연산 수에 DOCUMENTS 를 곱하면 초당 문서 수다.
+     */
+    @Benchmark
+    public void checkAll(Blackhole blackhole) {
+        checker.checkAll(documents.stream(), blackhole::consume);
+    }
+}
@@ -0,0 +1,63 @@
+package Chapter2.item5;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 사전을 쓸 수 있게 되기까지의 시간. build 는 단어 목록으로 매번 만드는 경우,
+ * open 은 컴파일해 둔 파일을 mmap 하는 경우다. -prof gc 로 보면 할당량 차이도 드러난다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DictionaryLoadBenchmark {
+
+    @Param({"100000", "500000"})
+    int words;
+
+    List<String> wordList;
+    String probe;
+    Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        wordList = BenchmarkWords.generate(words, new Random(42));
+        probe = wordList.get(0);
+        file = Files.createTempFile("dictionary", ".lex");
+        new KoreanDictionary(wordList).writeTo(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public boolean build() {
+        return new KoreanDictionary(wordList).contains(probe);
+    }
+
+    @Benchmark
+    public boolean open() throws IOException {
+        return MappedDictionary.open(file).contains(probe);
+    }
+}
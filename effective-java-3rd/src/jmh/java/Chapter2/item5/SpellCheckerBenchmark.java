@@ -0,0 +1,94 @@
+package Chapter2.item5;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 50만 단어 사전에서 isValid / suggestion 한 번에 걸리는 시간을 잰다.
+ * heap 은 KoreanDictionary, mapped 는 같은 사전을 컴파일해 mmap 한 MappedDictionary 다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SpellCheckerBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param("500000")
+    int words;
+
+    @Param({"heap", "mapped"})
+    String lexicon;
+
+    SpellChecker spellChecker;
+    String[] known = new String[QUERIES];
+    String[] typos = new String[QUERIES];
+    int next;
+    Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<String> all = BenchmarkWords.generate(words, random);
+        KoreanDictionary dictionary = new KoreanDictionary(all);
+        if (lexicon.equals("mapped")) {
+            file = Files.createTempFile("dictionary", ".lex");
+            dictionary.writeTo(file);
+            spellChecker = new SpellChecker(MappedDictionary.open(file));
+        } else {
+            spellChecker = new SpellChecker(dictionary);
+        }
+
+        for (int i = 0; i < QUERIES; i++) {
+            known[i] = all.get(random.nextInt(all.size()));
+            typos[i] = BenchmarkWords.typo(all.get(random.nextInt(all.size())), random);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (file != null) {
+            Files.delete(file);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return spellChecker.isValid(known[next++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public boolean isValidMiss() {
+        return spellChecker.isValid(typos[next++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public List<String> suggestion() {
+        return spellChecker.suggestion(typos[next++ & (QUERIES - 1)]);
+    }
+}
@@ -0,0 +1,118 @@
+package Chapter2.item7;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 값 size 개를 push 했다가 모두 pop 하는 데 걸리는 시간. -prof gc 로 돌리면 연산당 할당량이 나온다.
+ * Stack 은 128 이상의 값마다 Integer 를 만들고, IntStack 은 여분 청크가 있으므로 할당이 없어야 한다.
+ *
+ * main 은 벤치마크와 따로, 값을 잔뜩 넣었다 뺀 뒤 스택이 붙잡고 있는 힙 크기를 잰다.
+ * 사용법: PrimitiveStackBenchmark [spike 크기]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveStackBenchmark {
+
+    private static final int BASE = 1000;
+
+    @Param({"64", "4096"})
+    int size;
+
+    Stack stack;
+    IntStack intStack;
+    int[] buffer;
+
+    @Setup
+    public void setUp() {
+        stack = new Stack();
+        intStack = new IntStack();
+        buffer = new int[size];
+        for (int i = 0; i < size; i++) {
+            buffer[i] = BASE + i;
+        }
+    }
+
+    @Benchmark
+    public long boxedPushPop() {
+        for (int i = 0; i < size; i++) {
+            stack.push(BASE + i);
+        }
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += (Integer) stack.pop();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long intPushPop() {
+        for (int i = 0; i < size; i++) {
+            intStack.push(BASE + i);
+        }
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += intStack.pop();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int intPushAllPopInto() {
+        intStack.pushAll(buffer, 0, size);
+        return intStack.popInto(buffer, 0, size);
+    }
+
+    public static void main(String[] args) {
+        int spike = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        long before = usedHeap();
+        Stack stack = new Stack();
+        for (int i = 0; i < spike; i++) {
+            stack.push(BASE + i);
+        }
+        for (int i = 0; i < spike; i++) {
+            stack.pop();
+        }
+        System.out.printf("Stack    retained after %,d spike: %,d bytes%n", spike, usedHeap() - before);
+
+        before = usedHeap();
+        IntStack intStack = new IntStack();
+        for (int i = 0; i < spike; i++) {
+            intStack.push(BASE + i);
+        }
+        for (int i = 0; i < spike; i++) {
+            intStack.pop();
+        }
+        System.out.printf("IntStack retained after %,d spike: %,d bytes%n", spike, usedHeap() - before);
+
+        // 잴 때까지 두 스택이 GC 되지 않아야 한다.
+        Reference.reachabilityFence(stack);
+        Reference.reachabilityFence(intStack);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,72 @@
+package Chapter2.item7;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 여러 스레드가 한 스택에 push 한 번, pop 한 번을 되풀이할 때의 처리량.
+ * 스레드마다 push 뒤에 pop 하므로 pop 이 빈 스택을 만나는 일은 없다.
+ * synchronized 는 Stack 의 push/pop 을 한 모니터로 감싼 것이고, lockFree 는 LockFreeStack 이다.
+ *
+ * main 은 1~64 스레드로 차례로 돌리고 스레드 수마다 JSON 결과를 남긴다.
+ * 사용법: StackBenchmark [결과 디렉터리]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final Object VALUE = new Object();
+
+    final Stack stack = new Stack();
+    final LockFreeStack<Object> lockFreeStack = new LockFreeStack<>();
+
+    @Benchmark
+    public Object synchronizedPushPop() {
+        synchronized (stack) {
+            stack.push(VALUE);
+        }
+        synchronized (stack) {
+            return stack.pop();
+        }
+    }
+
+    @Benchmark
+    public Object lockFreePushPop() {
+        lockFreeStack.push(VALUE);
+        return lockFreeStack.pop();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        File directory = new File(args.length > 0 ? args[0] : "build/reports/jmh");
+        directory.mkdirs();
+
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                .include(StackBenchmark.class.getSimpleName())
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(directory, "stack-" + threads + "t.json").getPath())
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package Chapter2.item7;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 읽기 90%, 쓰기 10% 로 캐시를 두드린다. 쓰기는 키 풀의 한 칸을 새 키로 갈아 끼우므로
+ * 예전 키가 계속 쓰레기가 되고, 작은 힙에서 GC 가 자주 돌며 수거된 항목이 계속 생긴다.
+ * synchronized 는 Collections.synchronizedMap(new WeakHashMap<>()), concurrent 는 ConcurrentWeakIdentityCache 이다.
+ * 평균보다 꼬리 지연이 중요하므로 SampleTime 으로 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class WeakCacheBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({"synchronized", "concurrent"})
+    String cache;
+
+    AtomicReferenceArray<Object> keys;
+    Map<Object, Object> synchronizedCache;
+    ConcurrentWeakIdentityCache<Object, Object> concurrentCache;
+    ScheduledExecutorService drainer;
+
+    @Setup
+    public void setUp() {
+        keys = new AtomicReferenceArray<>(KEYS);
+        synchronizedCache = Collections.synchronizedMap(new WeakHashMap<>());
+        concurrentCache = new ConcurrentWeakIdentityCache<>();
+        drainer = Executors.newSingleThreadScheduledExecutor();
+        concurrentCache.scheduleDrain(drainer, 10, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < KEYS; i++) {
+            Object key = new Object();
+            keys.set(i, key);
+            put(key, new byte[64]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        drainer.shutdownNow();
+    }
+
+    @Benchmark
+    public Object mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot = random.nextInt(KEYS);
+        if (random.nextInt(10) == 0) {
+            Object key = new Object();
+            keys.set(slot, key);
+            put(key, new byte[64]);
+            return key;
+        }
+        Object key = keys.get(slot);
+        return cache.equals("concurrent") ? concurrentCache.get(key) : synchronizedCache.get(key);
+    }
+
+    private void put(Object key, Object value) {
+        if (cache.equals("concurrent")) {
+            concurrentCache.put(key, value);
+        } else {
+            synchronizedCache.put(key, value);
+        }
+    }
+}
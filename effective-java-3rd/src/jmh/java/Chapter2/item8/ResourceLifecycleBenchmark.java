@@ -0,0 +1,165 @@
+package Chapter2.item8;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main 의 100만 번 루프를 세 가지 방식으로 돌린다. 객체마다 1KB 버퍼를 자원으로 들고 있다.
+ * finalizer 는 finalize() 를 오버라이드한 객체, cleaner 는 try-with-resources 로 닫는 ManagedResource,
+ * pool 은 ResourcePool 에서 버퍼를 빌려 쓰고 돌려준다.
+ *
+ * 연산 하나가 루프 한 바퀴 전체다. 힙 최댓값은 peakHeapMb 보조 지표로 나오고,
+ * GC 시간은 main 처럼 -prof gc 를 붙여 돌리면 gc.time 으로 나온다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class ResourceLifecycleBenchmark {
+
+    private static final int OBJECTS = 1_000_000;
+    private static final int BUFFER_SIZE = 1024;
+    private static final ResourceMetrics METRICS = new ResourceMetrics();
+    private static final AtomicLong FINALIZED = new AtomicLong();
+
+    ResourcePool<byte[]> pool;
+
+    @Setup
+    public void setUp() {
+        pool = new ResourcePool<>(() -> new byte[BUFFER_SIZE], buffer -> { }, 16);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public long finalizer(Heap heap) {
+        long sum = 0;
+        for (int i = 0; i < OBJECTS; i++) {
+            sum += new Finalized().touch(i);
+        }
+        heap.record();
+        return sum;
+    }
+
+    @Benchmark
+    public long cleaner(Heap heap) {
+        long sum = 0;
+        for (int i = 0; i < OBJECTS; i++) {
+            try (Cleaned cleaned = new Cleaned()) {
+                sum += cleaned.touch(i);
+            }
+        }
+        heap.record();
+        return sum;
+    }
+
+    @Benchmark
+    public long pool(Heap heap) {
+        long sum = 0;
+        for (int i = 0; i < OBJECTS; i++) {
+            try (ResourcePool.Lease<byte[]> lease = pool.acquire()) {
+                byte[] buffer = lease.get();
+                buffer[i & (BUFFER_SIZE - 1)]++;
+                sum += buffer[0];
+            }
+        }
+        heap.record();
+        return sum;
+    }
+
+    /**
+     * 반복마다 힙 메모리 풀의 최댓값을 지우고, 반복이 끝날 때 그 합을 MB 로 남긴다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+
+        private static final List<MemoryPoolMXBean> POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(Collectors.toList());
+
+        public long peakHeapMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            POOLS.forEach(MemoryPoolMXBean::resetPeakUsage);
+            peakHeapMb = 0;
+        }
+
+        void record() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : POOLS) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            peakHeapMb = Math.max(peakHeapMb, peak >> 20);
+        }
+    }
+
+    static final class Finalized {
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        int touch(int i) {
+            buffer[i & (BUFFER_SIZE - 1)]++;
+            return buffer[0];
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        protected void finalize() {
+            FINALIZED.incrementAndGet();
+        }
+    }
+
+    static final class Cleaned extends ManagedResource {
+
+        private static final Runnable RELEASE = () -> { };
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        Cleaned() {
+            super(RELEASE, METRICS);
+        }
+
+        int touch(int i) {
+            buffer[i & (BUFFER_SIZE - 1)]++;
+            return buffer[0];
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ResourceLifecycleBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -6,6 +6,8 @@ import java.io.FileReader;
 import java.io.IOException;
 
 public class Student  {
+    private static final StudentInterner INTERNER = new StudentInterner();
+
     private String id;
     private String name;
 
@@ -16,6 +18,17 @@ public class Student  {
         return student;
     }
 
+    /**
+     * withId 와 같지만 id 가 같으면 이미 만든 인스턴스를 돌려준다. 여러 스레드가 동시에 불러도 된다.
+     */
+    public static Student internWithId(String id) {
+        return INTERNER.intern(id);
+    }
+
+    public static StudentInterner interner() {
+        return INTERNER;
+    }
+
     public static Student withName(String name) {
         Student student = new Student();
         student.name = name;
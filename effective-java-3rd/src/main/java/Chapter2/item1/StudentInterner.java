@@ -0,0 +1,97 @@
+package Chapter2.item1;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * id 가 같은 Student 를 하나만 만들어 돌려주는 캐시. Student.internWithId 가 쓴다.
+ * 값은 WeakReference 로 들고 있어서 아무도 쓰지 않는 Student 는 GC 가 거둬 가고, 캐시가 크기 제한 없이 불어나지 않는다.
+ *
+ * 조회는 ConcurrentHashMap.get 한 번이라 락이 없다. 거둬 간 항목은 새로 만들 때만 ReferenceQueue 에서 꺼내 지우므로
+ * 캐시가 잘 맞는 동안에는 조회하는 스레드가 정리 비용을 내지 않는다.
+ */
+public final class StudentInterner {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Student> collected = new ReferenceQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    StudentInterner() {
+    }
+
+    Student intern(String id) {
+        Objects.requireNonNull(id);
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            Student student = entry.get();
+            if (student != null) {
+                hits.increment();
+                return student;
+            }
+        }
+        misses.increment();
+        expungeCollected();
+
+        Student created = Student.withId(id);
+        Entry fresh = new Entry(id, created, collected);
+        while (true) {
+            Entry existing = entries.putIfAbsent(id, fresh);
+            if (existing == null) {
+                return created;
+            }
+            // 다른 스레드가 먼저 넣었으면 그것을 쓴다. 이미 거둬 간 항목이면 바꿔 끼운다.
+            Student student = existing.get();
+            if (student != null) {
+                return student;
+            }
+            if (entries.replace(id, existing, fresh)) {
+                return created;
+            }
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 지금까지의 조회 중 이미 있던 Student 를 돌려준 비율. 조회가 없었으면 0 이다.
+     */
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * 들고 있는 항목 수. 거둬 갔지만 아직 지우지 않은 항목도 포함된다.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void expungeCollected() {
+        Entry entry;
+        while ((entry = (Entry) collected.poll()) != null) {
+            entries.remove(entry.id, entry);
+        }
+    }
+
+    private static final class Entry extends WeakReference<Student> {
+
+        final String id;
+
+        Entry(String id, Student student, ReferenceQueue<Student> queue) {
+            super(student, queue);
+            this.id = id;
+        }
+    }
+}
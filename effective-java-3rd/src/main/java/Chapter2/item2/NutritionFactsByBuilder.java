@@ -49,6 +49,13 @@ public class NutritionFactsByBuilder {
         public NutritionFactsByBuilder build() {
             return new NutritionFactsByBuilder(this);
         }
+
+        /**
+         * 객체를 만드는 대신 table 에 행으로 바로 덧붙이고 그 행 번호를 돌려준다.
+         */
+        public int appendTo(NutritionFactsTable table) {
+            return table.append(servingSize, servings, calories, fat, sodium, carbohydrate);
+        }
     }
 
     private NutritionFactsByBuilder(Builder builder) {
@@ -0,0 +1,142 @@
+package Chapter2.item2;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * servingSize,servings,calories,fat,sodium,carbohydrate 순서의 CSV 를 NutritionFactsTable 로 읽는다.
+ * 첫 줄이 위 이름 그대로의 머리글이면 건너뛰고, 파일 맨 앞의 BOM 도 무시한다. 빈 칸과 뒤쪽 선택 필드를 생략한 것은 0 으로 읽는다.
+ *
+ * 줄을 String 으로 만들거나 split 하지 않고 고정 크기 버퍼에서 숫자를 바로 읽으므로, 파일 크기와 상관없이
+ * 표 말고는 메모리를 더 쓰지 않고 행마다 생기는 객체도 없다.
+ */
+public final class NutritionFactsCsv {
+
+    private static final String HEADER = "servingSize,servings,calories,fat,sodium,carbohydrate";
+    private static final char BOM = '\uFEFF';
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FIELDS = NutritionFactsTable.Column.values().length;
+    private static final int REQUIRED_FIELDS = 2;
+
+    private NutritionFactsCsv() {
+    }
+
+    public static NutritionFactsTable load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader, new NutritionFactsTable());
+        }
+    }
+
+    /**
+     * reader 를 끝까지 읽어 table 에 덧붙이고 table 을 돌려준다. reader 는 닫지 않는다.
+     *
+     * @throws IOException 읽다 실패했거나 형식이 맞지 않을 때. 형식 오류는 메시지에 줄 번호를 담는다.
+     */
+    public static NutritionFactsTable read(Reader reader, NutritionFactsTable table) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        int[] row = new int[FIELDS];
+        int field = 0;
+        int value = 0;
+        boolean negative = false;
+        boolean digits = false;
+        boolean content = false;
+        int header = -1;
+        long line = 1;
+        boolean first = true;
+
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            for (int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if (first) {
+                    first = false;
+                    if (c == BOM) {
+                        continue;
+                    }
+                }
+                if (c == '\n') {
+                    if (header >= 0) {
+                        checkHeader(header);
+                    } else if (content) {
+                        endRow(table, row, field, value, negative, digits, line);
+                    }
+                    field = 0;
+                    value = 0;
+                    negative = false;
+                    digits = false;
+                    content = false;
+                    header = -1;
+                    line++;
+                } else if (c == '\r' || c == ' ') {
+                    continue;
+                } else if (header >= 0) {
+                    if (header == HEADER.length() || HEADER.charAt(header) != c) {
+                        throw malformed(1, "header must be " + HEADER);
+                    }
+                    header++;
+                } else if (c >= '0' && c <= '9') {
+                    if (value > (Integer.MAX_VALUE - (c - '0')) / 10) {
+                        throw malformed(line, "number too large");
+                    }
+                    value = value * 10 + (c - '0');
+                    digits = true;
+                    content = true;
+                } else if (c == '-' && !digits && !negative) {
+                    negative = true;
+                    content = true;
+                } else if (c == ',') {
+                    if (field == FIELDS - 1) {
+                        throw malformed(line, "more than " + FIELDS + " fields");
+                    }
+                    row[field++] = fieldValue(value, negative, digits, line);
+                    value = 0;
+                    negative = false;
+                    digits = false;
+                    content = true;
+                } else if (line == 1 && !content && c == HEADER.charAt(0)) {
+                    header = 1;
+                } else {
+                    throw malformed(line, "unexpected '" + c + "'");
+                }
+            }
+        }
+        if (header >= 0) {
+            checkHeader(header);
+        } else if (content) {
+            endRow(table, row, field, value, negative, digits, line);
+        }
+        return table;
+    }
+
+    private static void checkHeader(int matched) throws IOException {
+        if (matched != HEADER.length()) {
+            throw malformed(1, "header must be " + HEADER);
+        }
+    }
+
+    private static int fieldValue(int value, boolean negative, boolean digits, long line) throws IOException {
+        if (negative && !digits) {
+            throw malformed(line, "'-' without digits");
+        }
+        return negative ? -value : value;
+    }
+
+    private static void endRow(NutritionFactsTable table, int[] row, int field, int value, boolean negative,
+        boolean digits, long line) throws IOException {
+        row[field++] = fieldValue(value, negative, digits, line);
+        if (field < REQUIRED_FIELDS) {
+            throw malformed(line, "servingSize and servings are required");
+        }
+        for (; field < FIELDS; field++) {
+            row[field] = 0;
+        }
+        table.append(row[0], row[1], row[2], row[3], row[4], row[5]);
+    }
+
+    private static IOException malformed(long line, String reason) {
+        return new IOException("malformed nutrition CSV at line " + line + ": " + reason);
+    }
+}
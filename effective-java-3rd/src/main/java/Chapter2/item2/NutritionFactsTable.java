@@ -0,0 +1,133 @@
+package Chapter2.item2;
+
+import java.util.Arrays;
+
+/**
+ * 제품 여러 개의 영양 정보를 열 단위로 담는 표. 필드마다 int 배열 하나를 두고 행은 배열의 인덱스다.
+ * 제품마다 객체를 만드는 NutritionFactsByBuilder 와 달리 행을 추가해도 객체가 생기지 않고,
+ * 한 필드를 집계할 때 배열 하나만 처음부터 끝까지 훑으므로 캐시를 잘 타고 JIT 가 SIMD 로 바꾸기도 쉽다.
+ *
+ * 스레드 안전하지 않다. 다 채운 뒤에는 여러 스레드가 집계만 하는 것은 괜찮다.
+ */
+public class NutritionFactsTable {
+
+    public enum Column {
+        SERVING_SIZE, SERVINGS, CALORIES, FAT, SODIUM, CARBOHYDRATE
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final int[][] columns = new int[Column.values().length][];
+    private int size;
+
+    public NutritionFactsTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public NutritionFactsTable(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity: " + initialCapacity);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new int[initialCapacity];
+        }
+    }
+
+    /**
+     * 행 하나를 덧붙이고 그 행 번호를 돌려준다.
+     */
+    public int append(int servingSize, int servings, int calories, int fat, int sodium, int carbohydrate) {
+        if (size == columns[0].length) {
+            grow();
+        }
+        int row = size++;
+        columns[Column.SERVING_SIZE.ordinal()][row] = servingSize;
+        columns[Column.SERVINGS.ordinal()][row] = servings;
+        columns[Column.CALORIES.ordinal()][row] = calories;
+        columns[Column.FAT.ordinal()][row] = fat;
+        columns[Column.SODIUM.ordinal()][row] = sodium;
+        columns[Column.CARBOHYDRATE.ordinal()][row] = carbohydrate;
+        return row;
+    }
+
+    public int get(int row, Column column) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        }
+        return columns[column.ordinal()][row];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 네 칸씩 따로 더해 덧셈끼리의 의존을 끊는다. int 합은 넘칠 수 있으므로 long 으로 더한다.
+     */
+    public long sum(Column column) {
+        int[] values = columns[column.ordinal()];
+        long s0 = 0;
+        long s1 = 0;
+        long s2 = 0;
+        long s3 = 0;
+        int i = 0;
+        for (int end = size & ~3; i < end; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < size; i++) {
+            s0 += values[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    /**
+     * 비어 있으면 Integer.MAX_VALUE 다.
+     */
+    public int min(Column column) {
+        int[] values = columns[column.ordinal()];
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * 비어 있으면 Integer.MIN_VALUE 다.
+     */
+    public int max(Column column) {
+        int[] values = columns[column.ordinal()];
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * 값이 [from, to] 안에 드는 행 수. 분기 없이 비교 결과를 더하므로 값 분포에 따라 분기 예측이 틀릴 일이 없다.
+     */
+    public int countBetween(Column column, int from, int to) {
+        int[] values = columns[column.ordinal()];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int v = values[i];
+            count += (v >= from) & (v <= to) ? 1 : 0;
+        }
+        return count;
+    }
+
+    public int countAtLeast(Column column, int threshold) {
+        return countBetween(column, threshold, Integer.MAX_VALUE);
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, columns[0].length * 2);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Arrays.copyOf(columns[i], capacity);
+        }
+    }
+}
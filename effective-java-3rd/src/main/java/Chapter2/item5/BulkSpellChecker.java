@@ -0,0 +1,134 @@
+package Chapter2.item5;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 많은 문서를 한꺼번에 검사하는 SpellChecker.
+ * 문서 하나는 TokenSpliterator 로 쪼개 ForkJoinPool 에서 나눠 검사하고, 잘게 나뉜 작업마다 자기만의 캐시를 둬서
+ * 같은 작업 안에서 되풀이되는 토큰은 사전을 한 번만 찾는다. 캐시를 공유하지 않으므로 작업끼리 다툴 일이 없다.
+ * 문서는 풀 병렬도의 두 배까지만 동시에 들고 있으므로 말뭉치 전체를 메모리에 올리지 않는다.
+ */
+public class BulkSpellChecker {
+
+    private final SpellChecker spellChecker;
+    private final ForkJoinPool pool;
+
+    public BulkSpellChecker(SpellChecker spellChecker, ForkJoinPool pool) {
+        this.spellChecker = Objects.requireNonNull(spellChecker);
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    public Result check(CharSequence document) {
+        return pool.invoke(new CheckTask(new TokenSpliterator(document))).toResult();
+    }
+
+    /**
+     * 문서를 하나씩 꺼내 검사하고 결과를 입력 순서대로 sink 에 넘긴다.
+     * documents 는 끝까지 소비하지만 닫지는 않는다.
+     */
+    public void checkAll(Stream<? extends CharSequence> documents, Consumer<? super Result> sink) {
+        int window = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<Tally>> inFlight = new ArrayDeque<>(window);
+        Iterator<? extends CharSequence> iterator = documents.iterator();
+        while (iterator.hasNext()) {
+            if (inFlight.size() == window) {
+                sink.accept(inFlight.poll().join().toResult());
+            }
+            inFlight.add(pool.submit(new CheckTask(new TokenSpliterator(iterator.next()))));
+        }
+        while (!inFlight.isEmpty()) {
+            sink.accept(inFlight.poll().join().toResult());
+        }
+    }
+
+    /**
+     * 문서 하나의 검사 결과. misspelled 는 사전에 없는 토큰과 등장 횟수를 처음 나온 순서로 담는다.
+     */
+    public static final class Result {
+
+        private final long tokens;
+        private final Map<String, Integer> misspelled;
+
+        private Result(long tokens, Map<String, Integer> misspelled) {
+            this.tokens = tokens;
+            this.misspelled = Collections.unmodifiableMap(misspelled);
+        }
+
+        public long tokens() {
+            return tokens;
+        }
+
+        public Map<String, Integer> misspelled() {
+            return misspelled;
+        }
+
+        public boolean isClean() {
+            return misspelled.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Result{tokens=" + tokens + ", misspelled=" + misspelled + '}';
+        }
+    }
+
+    private final class CheckTask extends RecursiveTask<Tally> {
+
+        private final Spliterator<String> tokens;
+
+        CheckTask(Spliterator<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        protected Tally compute() {
+            Spliterator<String> prefix = tokens.trySplit();
+            if (prefix == null) {
+                Tally tally = new Tally();
+                Map<String, Boolean> cache = new HashMap<>();
+                tokens.forEachRemaining(token -> tally.add(token, cache.computeIfAbsent(token, spellChecker::isValid)));
+                return tally;
+            }
+            CheckTask left = new CheckTask(prefix);
+            left.fork();
+            Tally right = new CheckTask(tokens).compute();
+            return left.join().append(right);
+        }
+    }
+
+    private static final class Tally {
+
+        long tokens;
+        final Map<String, Integer> misspelled = new LinkedHashMap<>();
+
+        void add(String token, boolean valid) {
+            tokens++;
+            if (!valid) {
+                misspelled.merge(token, 1, Integer::sum);
+            }
+        }
+
+        Tally append(Tally next) {
+            tokens += next.tokens;
+            next.misspelled.forEach((token, count) -> misspelled.merge(token, count, Integer::sum));
+            return this;
+        }
+
+        Result toResult() {
+            return new Result(tokens, misspelled);
+        }
+    }
+}
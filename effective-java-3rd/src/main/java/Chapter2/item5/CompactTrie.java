@@ -0,0 +1,215 @@
+package Chapter2.item5;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 정렬된 키 목록으로 한 번에 만드는 읽기 전용 trie.
+ * 노드를 너비 우선 순서로 번호 매기면 한 노드의 자식들이 연속 구간에 놓이므로,
+ * 노드 객체 없이 firstChild / label 배열과 종료 비트만으로 표현할 수 있다.
+ * 자식 탐색은 구간 안에서 이진 탐색한다.
+ *
+ * 세 배열은 버퍼로 들고 있어서, 힙 배열을 감싼 것이든 파일을 mmap 한 것이든 같은 코드로 읽는다.
+ */
+final class CompactTrie {
+
+    private static final int MAGIC = 0x4C455831; // "LEX1"
+    private static final int HEADER_SIZE = 32;
+
+    private final IntBuffer firstChild;
+    private final CharBuffer label;
+    private final LongBuffer terminal;
+    private final int nodeCount;
+    private final int keyCount;
+    private final int maxDepth;
+
+    /**
+     * @param keys 중복 없이 오름차순 정렬된 키
+     */
+    CompactTrie(String[] keys) {
+        int capacity = Math.max(16, keys.length * 2);
+        int[] first = new int[capacity + 1];
+        char[] labels = new char[capacity];
+        long[] terminals = new long[(capacity + 63) >>> 6];
+
+        // 각 노드가 맡는 키 구간 [lo, hi) 와 깊이를 큐에 담아 너비 우선으로 만든다.
+        int[] lo = new int[capacity];
+        int[] hi = new int[capacity];
+        int[] depth = new int[capacity];
+        lo[0] = 0;
+        hi[0] = keys.length;
+        int nodes = 1;
+        int deepest = 0;
+
+        for (int node = 0; node < nodes; node++) {
+            int from = lo[node];
+            int to = hi[node];
+            int d = depth[node];
+            first[node] = nodes;
+            if (from < to && keys[from].length() == d) {
+                terminals[node >>> 6] |= 1L << node;
+                deepest = d;
+                from++;
+            }
+            while (from < to) {
+                char c = keys[from].charAt(d);
+                int end = from + 1;
+                while (end < to && keys[end].charAt(d) == c) {
+                    end++;
+                }
+                if (nodes == labels.length) {
+                    int grown = labels.length * 2;
+                    first = Arrays.copyOf(first, grown + 1);
+                    labels = Arrays.copyOf(labels, grown);
+                    terminals = Arrays.copyOf(terminals, (grown + 63) >>> 6);
+                    lo = Arrays.copyOf(lo, grown);
+                    hi = Arrays.copyOf(hi, grown);
+                    depth = Arrays.copyOf(depth, grown);
+                }
+                labels[nodes] = c;
+                lo[nodes] = from;
+                hi[nodes] = end;
+                depth[nodes] = d + 1;
+                nodes++;
+                from = end;
+            }
+        }
+        first[nodes] = nodes;
+
+        this.firstChild = IntBuffer.wrap(Arrays.copyOf(first, nodes + 1));
+        this.label = CharBuffer.wrap(Arrays.copyOf(labels, nodes));
+        this.terminal = LongBuffer.wrap(Arrays.copyOf(terminals, (nodes + 63) >>> 6));
+        this.nodeCount = nodes;
+        this.keyCount = keys.length;
+        this.maxDepth = deepest;
+    }
+
+    private CompactTrie(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("사전 파일 형식이 아니다");
+        }
+        this.nodeCount = buffer.getInt(4);
+        this.keyCount = buffer.getInt(8);
+        this.maxDepth = buffer.getInt(12);
+        this.firstChild = slice(buffer, HEADER_SIZE, (nodeCount + 1) * 4).asIntBuffer();
+        int labelOffset = HEADER_SIZE + (nodeCount + 1) * 4;
+        this.label = slice(buffer, labelOffset, nodeCount * 2).asCharBuffer();
+        this.terminal = slice(buffer, terminalOffset(nodeCount), terminalWords(nodeCount) * 8).asLongBuffer();
+    }
+
+    /**
+     * writeTo 로 만든 파일을 읽기 전용으로 mmap 한다. 노드는 힙으로 옮기지 않고 페이지 캐시에서 바로 읽으므로
+     * 여는 비용은 사전 크기와 상관없고, 같은 파일을 여는 다른 JVM 과 물리 메모리를 나눠 쓴다.
+     */
+    static CompactTrie map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 매핑은 채널을 닫은 뒤에도 유효하다.
+            return new CompactTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 임시 파일에 쓴 뒤 이름을 바꾸므로, 이미 열어 둔 쪽은 예전 파일을 계속 본다.
+     */
+    void writeTo(Path path) throws IOException {
+        int size = terminalOffset(nodeCount) + terminalWords(nodeCount) * 8;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC).putInt(4, nodeCount).putInt(8, keyCount).putInt(12, maxDepth);
+        slice(buffer, HEADER_SIZE, (nodeCount + 1) * 4).asIntBuffer().put(firstChild.duplicate().rewind());
+        slice(buffer, HEADER_SIZE + (nodeCount + 1) * 4, nodeCount * 2).asCharBuffer().put(label.duplicate().rewind());
+        slice(buffer, terminalOffset(nodeCount), terminalWords(nodeCount) * 8).asLongBuffer()
+            .put(terminal.duplicate().rewind());
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    boolean contains(char[] key) {
+        int node = 0;
+        for (char c : key) {
+            node = child(node, c);
+            if (node < 0) {
+                return false;
+            }
+        }
+        return isTerminal(node);
+    }
+
+    int child(int node, char c) {
+        int low = firstChild.get(node);
+        int high = firstChild.get(node + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char m = label.get(mid);
+            if (m < c) {
+                low = mid + 1;
+            } else if (m > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    int firstChild(int node) {
+        return firstChild.get(node);
+    }
+
+    int childEnd(int node) {
+        return firstChild.get(node + 1);
+    }
+
+    char label(int node) {
+        return label.get(node);
+    }
+
+    boolean isTerminal(int node) {
+        return (terminal.get(node >>> 6) & 1L << node) != 0;
+    }
+
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    int keyCount() {
+        return keyCount;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    private static int terminalOffset(int nodeCount) {
+        int end = HEADER_SIZE + (nodeCount + 1) * 4 + nodeCount * 2;
+        return (end + 7) & ~7;
+    }
+
+    private static int terminalWords(int nodeCount) {
+        return (nodeCount + 63) >>> 6;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset).limit(offset + length);
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,22 @@
+package Chapter2.item5;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 단어 목록 파일(한 줄에 한 단어, UTF-8)을 MappedDictionary 용 이진 파일로 컴파일한다.
+ * 사용법: DictionaryCompiler <단어 목록> <출력 파일>
+ */
+public class DictionaryCompiler {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: DictionaryCompiler <words.txt> <dictionary.lex>");
+            System.exit(1);
+        }
+        long start = System.currentTimeMillis();
+        KoreanDictionary dictionary = KoreanDictionary.load(Path.of(args[0]));
+        dictionary.writeTo(Path.of(args[1]));
+        System.out.println(dictionary.size() + " words, " + (System.currentTimeMillis() - start) + "ms");
+    }
+}
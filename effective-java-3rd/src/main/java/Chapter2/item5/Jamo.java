@@ -0,0 +1,74 @@
+package Chapter2.item5;
+
+/**
+ * 한글 음절을 초성/중성/종성 자모로 분해한다.
+ * "강" 과 "감" 은 음절 단위로는 거리 1 이지만, 자모 단위로 보면 종성 하나만 다르다는 것까지 드러난다.
+ */
+final class Jamo {
+
+    private static final int SYLLABLE_BASE = 0xAC00;
+    private static final int SYLLABLE_END = 0xD7A3;
+    private static final int LEAD_BASE = 0x1100;
+    private static final int VOWEL_BASE = 0x1161;
+    private static final int TAIL_BASE = 0x11A7;
+    private static final int LEADS = 19;
+    private static final int VOWELS = 21;
+    private static final int TAILS = 28;
+
+    private Jamo() {
+    }
+
+    static char[] decompose(CharSequence word) {
+        int length = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            length += isSyllable(c) ? ((c - SYLLABLE_BASE) % TAILS == 0 ? 2 : 3) : 1;
+        }
+
+        char[] jamo = new char[length];
+        int pos = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (!isSyllable(c)) {
+                jamo[pos++] = c;
+                continue;
+            }
+            int index = c - SYLLABLE_BASE;
+            jamo[pos++] = (char) (LEAD_BASE + index / (VOWELS * TAILS));
+            jamo[pos++] = (char) (VOWEL_BASE + index % (VOWELS * TAILS) / TAILS);
+            if (index % TAILS != 0) {
+                jamo[pos++] = (char) (TAIL_BASE + index % TAILS);
+            }
+        }
+        return jamo;
+    }
+
+    /**
+     * decompose 의 역. 초성+중성(+종성) 이 이어지면 음절로 다시 합치고 나머지 문자는 그대로 둔다.
+     */
+    static String compose(char[] jamo, int length) {
+        StringBuilder word = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = jamo[i];
+            int lead = c - LEAD_BASE;
+            int vowel = i + 1 < length ? jamo[i + 1] - VOWEL_BASE : -1;
+            if (lead < 0 || lead >= LEADS || vowel < 0 || vowel >= VOWELS) {
+                word.append(c);
+                i++;
+                continue;
+            }
+            int tail = i + 2 < length ? jamo[i + 2] - TAIL_BASE : 0;
+            if (tail <= 0 || tail >= TAILS) {
+                tail = 0;
+            }
+            word.append((char) (SYLLABLE_BASE + (lead * VOWELS + vowel) * TAILS + tail));
+            i += tail == 0 ? 2 : 3;
+        }
+        return word.toString();
+    }
+
+    private static boolean isSyllable(char c) {
+        return c >= SYLLABLE_BASE && c <= SYLLABLE_END;
+    }
+}
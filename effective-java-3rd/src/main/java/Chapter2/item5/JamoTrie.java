@@ -0,0 +1,142 @@
+package Chapter2.item5;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 자모로 분해한 단어를 CompactTrie 에 담은 사전.
+ * 추천 단어는 편집 거리 표(Levenshtein 행)를 들고 trie 를 내려가며 찾는다.
+ * 공통 접두사의 행은 한 번만 계산되고, 행의 최솟값이 허용 거리를 넘으면 그 아래 가지는 통째로 건너뛴다.
+ * 단어마다 거리를 따로 재는 BK-tree 보다 50만 단어에서 수십 배 빨랐다.
+ * 단어는 trie 경로의 자모를 다시 합쳐 만들기 때문에 단어 목록을 따로 들고 있지 않는다.
+ */
+final class JamoTrie {
+
+    private static final Comparator<Found> NEAREST_FIRST =
+        Comparator.comparingInt((Found found) -> found.distance).thenComparing(found -> found.word);
+
+    private final CompactTrie trie;
+
+    JamoTrie(CompactTrie trie) {
+        this.trie = trie;
+    }
+
+    /**
+     * @param words 중복 없는 단어
+     */
+    static JamoTrie build(String[] words) {
+        String[] keys = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            keys[i] = new String(Jamo.decompose(words[i]));
+        }
+        // 자모 순서와 음절 순서는 다르므로 자모 문자열 기준으로 다시 정렬한다.
+        Arrays.sort(keys);
+        return new JamoTrie(new CompactTrie(keys));
+    }
+
+    static JamoTrie map(Path path) throws IOException {
+        return new JamoTrie(CompactTrie.map(path));
+    }
+
+    void writeTo(Path path) throws IOException {
+        trie.writeTo(path);
+    }
+
+    boolean contains(String word) {
+        return trie.contains(Jamo.decompose(word));
+    }
+
+    int size() {
+        return trie.keyCount();
+    }
+
+    List<String> search(String typo, int maxDistance, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Search search = new Search(Jamo.decompose(typo), maxDistance, trie.maxDepth());
+        for (int i = 0; i <= search.query.length; i++) {
+            search.rows[0][i] = i;
+        }
+        if (search.query.length <= maxDistance && trie.isTerminal(0)) {
+            search.found.add(new Found(search.query.length, ""));
+        }
+        search.visitChildren(0, 1);
+
+        List<Found> found = search.found;
+        found.sort(NEAREST_FIRST);
+        List<String> suggestions = new ArrayList<>(Math.min(limit, found.size()));
+        for (int i = 0; i < found.size() && i < limit; i++) {
+            suggestions.add(found.get(i).word);
+        }
+        return suggestions;
+    }
+
+    private static final class Found {
+
+        final int distance;
+        final String word;
+
+        Found(int distance, String word) {
+            this.distance = distance;
+            this.word = word;
+        }
+    }
+
+    private final class Search {
+
+        final char[] query;
+        final int maxDistance;
+        final int[][] rows;
+        final char[] path;
+        final List<Found> found = new ArrayList<>();
+
+        Search(char[] query, int maxDistance, int maxDepth) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+            this.rows = new int[maxDepth + 1][query.length + 1];
+            this.path = new char[maxDepth];
+        }
+
+        void visitChildren(int node, int depth) {
+            for (int child = trie.firstChild(node); child < trie.childEnd(node); child++) {
+                visit(child, depth);
+            }
+        }
+
+        private void visit(int node, int depth) {
+            int[] prev = rows[depth - 1];
+            int[] row = rows[depth];
+            char c = trie.label(node);
+            path[depth - 1] = c;
+
+            // 대각선에서 maxDistance 보다 멀리 떨어진 칸은 어차피 허용 거리를 넘으므로 띠 안쪽만 계산한다.
+            int low = Math.max(1, depth - maxDistance);
+            int high = Math.min(query.length, depth + maxDistance);
+            int outside = maxDistance + 1;
+            row[low - 1] = low == 1 ? depth : outside;
+            int min = row[low - 1];
+            for (int i = low; i <= high; i++) {
+                int cost = query[i - 1] == c ? 0 : 1;
+                int d = Math.min(Math.min(row[i - 1] + 1, prev[i] + 1), prev[i - 1] + cost);
+                row[i] = d;
+                min = Math.min(min, d);
+            }
+            if (high < query.length) {
+                row[high + 1] = outside;
+            }
+
+            int distance = high == query.length ? row[query.length] : outside;
+            if (distance <= maxDistance && trie.isTerminal(node)) {
+                found.add(new Found(distance, Jamo.compose(path, depth)));
+            }
+            if (min <= maxDistance) {
+                visitChildren(node, depth + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package Chapter2.item5;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * 단어 목록으로 힙에 JamoTrie 를 만들어 쓰는 사전.
+ * 만든 뒤에는 바뀌지 않으므로 여러 스레드가 공유해도 안전하다.
+ * 시작할 때마다 만드는 비용이 부담되면 DictionaryCompiler 로 미리 컴파일해 두고 MappedDictionary 로 연다.
+ */
+public class KoreanDictionary implements Lexicon {
+
+    private final JamoTrie trie;
+
+    public KoreanDictionary(Collection<String> words) {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String word : words) {
+            sorted.add(Objects.requireNonNull(word));
+        }
+        this.trie = JamoTrie.build(sorted.toArray(new String[0]));
+    }
+
+    /**
+     * 한 줄에 한 단어씩 적힌 UTF-8 파일에서 사전을 만든다. 빈 줄은 건너뛴다.
+     */
+    public static KoreanDictionary load(Path path) throws IOException {
+        TreeSet<String> words = new TreeSet<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String word = line.strip();
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return new KoreanDictionary(words);
+    }
+
+    /**
+     * MappedDictionary.open 으로 열 수 있는 파일로 저장한다.
+     */
+    public void writeTo(Path path) throws IOException {
+        trie.writeTo(path);
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return trie.contains(word);
+    }
+
+    @Override
+    public List<String> suggestions(String typo, int maxDistance, int limit) {
+        return trie.search(typo, maxDistance, limit);
+    }
+
+    public int size() {
+        return trie.size();
+    }
+}
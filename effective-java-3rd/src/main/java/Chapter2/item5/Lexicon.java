@@ -0,0 +1,16 @@
+package Chapter2.item5;
+
+import java.util.List;
+
+public interface Lexicon {
+
+    /**
+     * 사전에 있는 단어인지 확인한다.
+     */
+    boolean contains(String word);
+
+    /**
+     * 편집 거리가 maxDistance 이하인 단어를 가까운 순으로 최대 limit 개 돌려준다.
+     */
+    List<String> suggestions(String typo, int maxDistance, int limit);
+}
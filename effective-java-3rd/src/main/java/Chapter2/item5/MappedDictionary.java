@@ -0,0 +1,37 @@
+package Chapter2.item5;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * DictionaryCompiler 가 만든 파일을 mmap 해서 바로 조회하는 사전.
+ * 힙에는 노드를 하나도 만들지 않으므로 여는 시간은 사전 크기와 상관없이 거의 일정하고,
+ * 같은 파일을 여는 JVM 들은 운영체제 페이지 캐시의 같은 물리 페이지를 나눠 쓴다.
+ */
+public final class MappedDictionary implements Lexicon {
+
+    private final JamoTrie trie;
+
+    private MappedDictionary(JamoTrie trie) {
+        this.trie = trie;
+    }
+
+    public static MappedDictionary open(Path path) throws IOException {
+        return new MappedDictionary(JamoTrie.map(path));
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return trie.contains(word);
+    }
+
+    @Override
+    public List<String> suggestions(String typo, int maxDistance, int limit) {
+        return trie.search(typo, maxDistance, limit);
+    }
+
+    public int size() {
+        return trie.size();
+    }
+}
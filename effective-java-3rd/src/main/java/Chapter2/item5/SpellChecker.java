@@ -5,21 +5,21 @@ import java.util.Objects;
 
 public class SpellChecker {
 
+    // 자모 두 개까지 틀린 단어를 추천한다. 음절 하나의 받침과 모음이 함께 틀린 경우까지 잡힌다.
+    private static final int MAX_DISTANCE = 2;
+    private static final int MAX_SUGGESTIONS = 10;
+
     private final Lexicon dictionary;
 
     public SpellChecker(Lexicon dictionary) {
         this.dictionary = Objects.requireNonNull(dictionary);
     }
 
-    public static boolean isValid(String word) {
-        throw new UnsupportedOperationException();
+    public boolean isValid(String word) {
+        return dictionary.contains(word);
     }
 
-    public static List<String> suggestion(String typo) {
-        throw new UnsupportedOperationException();
+    public List<String> suggestion(String typo) {
+        return dictionary.suggestions(typo, MAX_DISTANCE, MAX_SUGGESTIONS);
     }
 }
-
-interface Lexicon {}
-
-class KoreanDictionary implements Lexicon {}
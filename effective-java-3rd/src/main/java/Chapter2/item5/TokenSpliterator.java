@@ -0,0 +1,75 @@
+package Chapter2.item5;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 글자(Character.isLetter)가 이어진 구간을 토큰으로 잘라 내는 Spliterator.
+ * 토큰 문자열은 꺼낼 때마다 하나씩 만들기 때문에 문서 전체를 토큰 목록으로 펼쳐 두지 않는다.
+ * 나눌 때는 가운데 지점에서 다음 구분 문자까지 밀어서 자르므로 토큰이 두 조각으로 갈라지지 않는다.
+ */
+final class TokenSpliterator implements Spliterator<String> {
+
+    // 이보다 짧은 구간은 나눠 봐야 포크 비용이 더 크다.
+    private static final int MIN_SPLIT = 4 * 1024;
+
+    private final CharSequence text;
+    private int from;
+    private final int to;
+
+    TokenSpliterator(CharSequence text) {
+        this(text, 0, text.length());
+    }
+
+    private TokenSpliterator(CharSequence text, int from, int to) {
+        this.text = text;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        while (from < to && !Character.isLetter(text.charAt(from))) {
+            from++;
+        }
+        if (from == to) {
+            return false;
+        }
+        int start = from;
+        while (from < to && Character.isLetter(text.charAt(from))) {
+            from++;
+        }
+        action.accept(text.subSequence(start, from).toString());
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (to - from < MIN_SPLIT) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        while (mid < to && Character.isLetter(text.charAt(mid))) {
+            mid++;
+        }
+        if (mid == to) {
+            return null;
+        }
+        Spliterator<String> prefix = new TokenSpliterator(text, from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    /**
+     * 남은 글자 수. 토큰 수의 상한이다.
+     */
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
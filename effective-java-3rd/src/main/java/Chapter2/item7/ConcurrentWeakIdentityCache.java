@@ -0,0 +1,252 @@
+package Chapter2.item7;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 여러 스레드가 함께 쓰는, 키를 약한 참조로 들고 있는 캐시. CacheSample 의 WeakHashMap 을 대신한다.
+ *
+ * WeakHashMap 과 다른 점은 세 가지다.
+ * 키는 equals 가 아니라 == 로 비교한다. 메타데이터처럼 객체 자체에 딸린 값을 담는 용도라서다.
+ * 키의 identityHashCode 로 세그먼트를 나누고, 세그먼트마다 ConcurrentHashMap 과 ReferenceQueue 를 따로 둔다.
+ * 수거된 키는 get 에서 치우지 않는다. put 이 자기 세그먼트에서 DRAIN_BATCH 개까지만 치우고,
+ * 나머지는 drainStale 을 scheduleDrain 으로 주기적으로 돌려 캐시를 읽는 스레드 밖에서 치운다.
+ *
+ * softValues 로 만들면 값도 SoftReference 로 들고 있어 메모리가 모자랄 때 값이 먼저 비워진다.
+ */
+public class ConcurrentWeakIdentityCache<K, V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    // put 한 번이 치우는 수거된 항목의 최대 수. 호출한 스레드의 지연이 이 이상 늘지 않는다.
+    private static final int DRAIN_BATCH = 16;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final boolean softValues;
+
+    public ConcurrentWeakIdentityCache() {
+        this(DEFAULT_SEGMENTS, false);
+    }
+
+    /**
+     * @param segments   세그먼트 수. 2의 거듭제곱으로 올림한다.
+     * @param softValues true 면 값을 SoftReference 로 든다
+     */
+    public ConcurrentWeakIdentityCache(int segments, boolean softValues) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("segments: " + segments);
+        }
+        int size = Integer.highestOneBit(segments - 1) << 1;
+        this.segments = new Segment[Math.max(1, size)];
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i] = new Segment();
+        }
+        this.segmentMask = this.segments.length - 1;
+        this.softValues = softValues;
+    }
+
+    public V get(K key) {
+        int hash = hash(key);
+        return unwrap(segmentFor(hash).map.get(new LookupKey(key, hash)));
+    }
+
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.drain(DRAIN_BATCH);
+        WeakKey weakKey = new WeakKey(key, hash, segment.queue);
+        return unwrap(segment.map.put(weakKey, wrap(weakKey, value, segment.queue)));
+    }
+
+    /**
+     * 값이 없거나 이미 비워졌으면 mapping 으로 만들어 넣는다. 같은 키로 동시에 부르면 mapping 은 한 번만 돈다.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        int hash = hash(key);
+        V cached = unwrap(segmentFor(hash).map.get(new LookupKey(key, hash)));
+        if (cached != null) {
+            return cached;
+        }
+        Segment segment = segmentFor(hash);
+        segment.drain(DRAIN_BATCH);
+        WeakKey weakKey = new WeakKey(key, hash, segment.queue);
+        @SuppressWarnings("unchecked")
+        V[] result = (V[]) new Object[1];
+        segment.map.compute(weakKey, (k, old) -> {
+            V value = unwrap(old);
+            if (value == null) {
+                value = Objects.requireNonNull(mapping.apply(key));
+                result[0] = value;
+                return wrap((WeakKey) k, value, segment.queue);
+            }
+            result[0] = value;
+            return old;
+        });
+        return result[0];
+    }
+
+    public V remove(K key) {
+        int hash = hash(key);
+        return unwrap(segmentFor(hash).map.remove(new LookupKey(key, hash)));
+    }
+
+    /**
+     * 들고 있는 항목 수. 수거됐지만 아직 치우지 않은 항목도 포함된다.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.map.size();
+        }
+        return size;
+    }
+
+    /**
+     * 모든 세그먼트에서 수거된 키와 비워진 값을 치우고 치운 수를 돌려준다.
+     */
+    public int drainStale() {
+        int drained = 0;
+        for (Segment segment : segments) {
+            drained += segment.drain(Integer.MAX_VALUE);
+        }
+        return drained;
+    }
+
+    /**
+     * drainStale 을 executor 에서 주기적으로 돌린다. 캐시를 버릴 때 돌려받은 ScheduledFuture 를 취소한다.
+     */
+    public ScheduledFuture<?> scheduleDrain(ScheduledExecutorService executor, long period, TimeUnit unit) {
+        return executor.scheduleWithFixedDelay(this::drainStale, period, period, unit);
+    }
+
+    private Segment segmentFor(int hash) {
+        // 세그먼트는 상위 비트로 고른다. 하위 비트는 ConcurrentHashMap 안에서 버킷을 고르는 데 쓰인다.
+        return segments[(hash >>> 16) & segmentMask];
+    }
+
+    private static int hash(Object key) {
+        return System.identityHashCode(Objects.requireNonNull(key));
+    }
+
+    private Object wrap(WeakKey key, V value, ReferenceQueue<Object> queue) {
+        return softValues ? new SoftValue(value, key, queue) : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V unwrap(Object stored) {
+        if (stored instanceof SoftValue) {
+            return (V) ((SoftValue) stored).get();
+        }
+        return (V) stored;
+    }
+
+    private static final class Segment {
+
+        final ConcurrentHashMap<Object, Object> map = new ConcurrentHashMap<>();
+        final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+        int drain(int limit) {
+            int drained = 0;
+            Reference<?> stale;
+            while (drained < limit && (stale = queue.poll()) != null) {
+                if (stale instanceof WeakKey) {
+                    map.remove(stale);
+                } else {
+                    SoftValue value = (SoftValue) stale;
+                    map.remove(value.key, value);
+                }
+                drained++;
+            }
+            return drained;
+        }
+    }
+
+    /**
+     * WeakKey 와 LookupKey 는 서로 같은 키 객체를 가리키면 같다. 키가 수거된 WeakKey 는 자기 자신과만 같다.
+     */
+    private interface IdentityKey {
+
+        Object referent();
+    }
+
+    private static boolean sameReferent(IdentityKey self, Object other) {
+        if (self == other) {
+            return true;
+        }
+        if (!(other instanceof IdentityKey)) {
+            return false;
+        }
+        Object referent = self.referent();
+        return referent != null && referent == ((IdentityKey) other).referent();
+    }
+
+    private static final class WeakKey extends WeakReference<Object> implements IdentityKey {
+
+        private final int hash;
+
+        WeakKey(Object key, int hash, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hash = hash;
+        }
+
+        @Override
+        public Object referent() {
+            return get();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return sameReferent(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class LookupKey implements IdentityKey {
+
+        private final Object key;
+        private final int hash;
+
+        LookupKey(Object key, int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+
+        @Override
+        public Object referent() {
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return sameReferent(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class SoftValue extends SoftReference<Object> {
+
+        final WeakKey key;
+
+        SoftValue(Object value, WeakKey key, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+}
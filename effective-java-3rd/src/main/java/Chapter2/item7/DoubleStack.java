@@ -0,0 +1,146 @@
+package Chapter2.item7;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * double 을 박싱 없이 담는 스택. 값은 크기가 같은 청크 여러 개에 나눠 담는다.
+ * 늘어날 때는 청크를 하나 더 달기만 하므로 이미 담긴 값을 복사하지 않고,
+ * 줄어들 때는 비게 된 청크 하나만 여분으로 남기고 그 위의 청크는 놓아준다.
+ * 그래서 한 번 크게 늘었다가 줄어도 큰 배열을 계속 붙잡고 있지 않고,
+ * 청크 경계에서 push/pop 이 오가도 여분 청크 덕분에 할당이 생기지 않는다.
+ */
+public class DoubleStack {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final int chunkShift;
+    private final int chunkMask;
+    private double[][] chunks = new double[4][];
+    private int size;
+
+    public DoubleStack() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize 청크 하나에 담는 값 수. 2의 거듭제곱이어야 한다.
+     *                  크게 잡으면 배열 하나짜리 스택처럼 동작하고, 작게 잡으면 더 잘게 놓아준다.
+     */
+    public DoubleStack(int chunkSize) {
+        if (chunkSize < 1 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("chunkSize 는 2의 거듭제곱이어야 한다: " + chunkSize);
+        }
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        this.chunks[0] = new double[chunkSize];
+    }
+
+    public void push(double value) {
+        chunkFor(size)[size & chunkMask] = value;
+        size++;
+    }
+
+    public double pop() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        size--;
+        double value = chunks[size >>> chunkShift][size & chunkMask];
+        if ((size & chunkMask) == 0) {
+            releaseAbove(topChunk());
+        }
+        return value;
+    }
+
+    public double peek() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        int top = size - 1;
+        return chunks[top >>> chunkShift][top & chunkMask];
+    }
+
+    public void pushAll(double... values) {
+        pushAll(values, 0, values.length);
+    }
+
+    /**
+     * values[offset] 부터 순서대로 push 한다. 청크 단위로 한꺼번에 복사한다.
+     */
+    public void pushAll(double[] values, int offset, int length) {
+        checkRange(values.length, offset, length);
+        int end = offset + length;
+        while (offset < end) {
+            double[] chunk = chunkFor(size);
+            int at = size & chunkMask;
+            int n = Math.min(end - offset, chunk.length - at);
+            System.arraycopy(values, offset, chunk, at, n);
+            offset += n;
+            size += n;
+        }
+    }
+
+    /**
+     * 위에서부터 최대 length 개를 꺼내 target[offset] 부터 담고 꺼낸 수를 돌려준다.
+     * 담는 순서는 스택에 있던 순서 그대로라서 가장 위의 값이 마지막 칸에 온다.
+     * 따라서 같은 구간으로 pushAll 하면 꺼내기 전과 같아진다.
+     */
+    public int popInto(double[] target, int offset, int length) {
+        checkRange(target.length, offset, length);
+        int n = Math.min(length, size);
+        int from = size - n;
+        int to = offset;
+        for (int i = from; i < size; ) {
+            int at = i & chunkMask;
+            int count = Math.min(size - i, chunkMask + 1 - at);
+            System.arraycopy(chunks[i >>> chunkShift], at, target, to, count);
+            i += count;
+            to += count;
+        }
+        size = from;
+        releaseAbove(topChunk());
+        return n;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private double[] chunkFor(int index) {
+        int chunk = index >>> chunkShift;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new double[chunkMask + 1];
+        }
+        return chunks[chunk];
+    }
+
+    /**
+     * 가장 위의 값이 든 청크. 비어 있으면 -1 이다.
+     */
+    private int topChunk() {
+        return (size - 1) >> chunkShift;
+    }
+
+    /**
+     * chunk 바로 위 청크 하나는 여분으로 두고 그보다 위는 놓아준다. 첫 청크는 놓아주지 않는다.
+     */
+    private void releaseAbove(int chunk) {
+        for (int i = Math.max(1, chunk + 2); i < chunks.length && chunks[i] != null; i++) {
+            chunks[i] = null;
+        }
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > arrayLength) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+    }
+}
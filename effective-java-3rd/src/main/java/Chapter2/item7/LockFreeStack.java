@@ -0,0 +1,126 @@
+package Chapter2.item7;
+
+import java.util.EmptyStackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 여러 스레드가 락 없이 함께 쓰는 스택. head 하나를 CAS 로 바꾸는 Treiber 스택에 소거(elimination) 배열을 붙였다.
+ * head 에서 CAS 가 실패하면 push 는 소거 칸에 노드를 잠깐 올려 두고 기다리고, pop 은 소거 칸에 올라온 노드를 가져간다.
+ * 이렇게 만난 push/pop 짝은 head 를 건드리지 않고 서로 상쇄되므로 경합이 심할수록 head 에 몰리는 CAS 가 줄어든다.
+ *
+ * Stack 과 마찬가지로 다 쓴 참조를 들고 있지 않는다. 꺼낸 노드의 값과 소거 칸은 곧바로 null 로 비운다.
+ */
+public class LockFreeStack<E> {
+
+    // pop 이 소거 칸의 노드를 가져갔다는 표시. push 는 이것을 보고 칸을 비운다.
+    private static final Object TAKEN = new Object();
+    private static final int SPINS = 128;
+    private static final int MAX_SLOTS = 16;
+
+    private final AtomicReference<Node<E>> head = new AtomicReference<>();
+    private final AtomicReferenceArray<Object> slots;
+
+    public LockFreeStack() {
+        this(Math.min(Runtime.getRuntime().availableProcessors(), MAX_SLOTS));
+    }
+
+    /**
+     * @param eliminationSlots 소거 칸 수. 동시에 경합하는 스레드 수의 절반 정도가 알맞다.
+     */
+    public LockFreeStack(int eliminationSlots) {
+        if (eliminationSlots < 1) {
+            throw new IllegalArgumentException("eliminationSlots: " + eliminationSlots);
+        }
+        this.slots = new AtomicReferenceArray<>(eliminationSlots);
+    }
+
+    public void push(E value) {
+        Node<E> node = new Node<>(value);
+        while (true) {
+            Node<E> top = head.get();
+            node.next = top;
+            if (head.compareAndSet(top, node) || eliminate(node)) {
+                return;
+            }
+        }
+    }
+
+    public E pop() {
+        while (true) {
+            Node<E> top = head.get();
+            if (top == null) {
+                // 비어 있어도 소거 칸에서 기다리는 push 가 있으면 그것을 받는다.
+                Node<E> node = takeEliminated();
+                if (node == null) {
+                    throw new EmptyStackException();
+                }
+                return release(node);
+            }
+            if (head.compareAndSet(top, top.next)) {
+                return release(top);
+            }
+            Node<E> node = takeEliminated();
+            if (node != null) {
+                return release(node);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return head.get() == null;
+    }
+
+    /**
+     * 소거 칸 하나에 노드를 올려 두고 잠깐 기다린다. pop 이 가져갔으면 true 다.
+     */
+    private boolean eliminate(Node<E> node) {
+        int slot = ThreadLocalRandom.current().nextInt(slots.length());
+        if (!slots.compareAndSet(slot, null, node)) {
+            return false;
+        }
+        for (int i = 0; i < SPINS; i++) {
+            if (slots.get(slot) == TAKEN) {
+                slots.set(slot, null);
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+        if (slots.compareAndSet(slot, node, null)) {
+            return false;
+        }
+        // 거둬들이기 직전에 pop 이 가져갔다.
+        slots.set(slot, null);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<E> takeEliminated() {
+        int slot = ThreadLocalRandom.current().nextInt(slots.length());
+        Object waiting = slots.get(slot);
+        if (waiting instanceof Node && slots.compareAndSet(slot, waiting, TAKEN)) {
+            return (Node<E>) waiting;
+        }
+        return null;
+    }
+
+    /**
+     * 노드를 가져간 스레드만 부르므로 값을 비워도 다른 스레드와 겹치지 않는다.
+     */
+    private static <E> E release(Node<E> node) {
+        E value = node.value;
+        node.value = null;
+        return value;
+    }
+
+    private static final class Node<E> {
+
+        E value;
+        Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package Chapter2.item7;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * LockFreeStack 을 여러 스레드로 두드려 본다. 스레드마다 겹치지 않는 값을 push 하고 pop 을 섞어 부른 뒤,
+ * 모든 값이 정확히 한 번씩 나왔는지와 남은 것이 없는지 확인한다. 어긋나면 0 이 아닌 코드로 끝난다.
+ * 스레드가 모두 끝난 뒤 남은 값은 스레드마다 push 한 역순으로 나와야 한다.
+ *
+ * 사용법: LockFreeStackStress [스레드 수] [스레드당 값 수] [반복 횟수]
+ */
+public class LockFreeStackStress {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        for (int round = 0; round < rounds; round++) {
+            run(threads, perThread);
+        }
+        System.out.println("ok: " + rounds + " rounds, " + threads + " threads x " + perThread + " values");
+    }
+
+    private static void run(int threads, int perThread) throws InterruptedException {
+        LockFreeStack<Integer> stack = new LockFreeStack<>();
+        AtomicIntegerArray seen = new AtomicIntegerArray(threads * perThread);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < perThread; i++) {
+                    stack.push(base + i);
+                    // 셋 중 둘은 곧바로 pop 해서 push/pop 이 맞부딪히게 한다. 나머지는 스택에 쌓인다.
+                    if (i % 3 != 0) {
+                        popInto(stack, seen);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // 남은 값은 한 스레드가 push 한 것끼리 보면 내림차순으로 나와야 한다.
+        int[] last = new int[threads];
+        Arrays.fill(last, Integer.MAX_VALUE);
+        while (!stack.isEmpty()) {
+            int value = stack.pop();
+            int owner = value / perThread;
+            if (value >= last[owner]) {
+                fail("value " + value + " popped after " + last[owner]);
+            }
+            last[owner] = value;
+            if (seen.incrementAndGet(value) > 1) {
+                fail("value " + value + " popped twice");
+            }
+        }
+        for (int i = 0; i < seen.length(); i++) {
+            if (seen.get(i) != 1) {
+                fail("value " + i + " popped " + seen.get(i) + " times");
+            }
+        }
+    }
+
+    private static void popInto(LockFreeStack<Integer> stack, AtomicIntegerArray seen) {
+        try {
+            int value = stack.pop();
+            if (seen.incrementAndGet(value) > 1) {
+                fail("value " + value + " popped twice");
+            }
+        } catch (EmptyStackException e) {
+            // 다른 스레드가 먼저 다 꺼냈다. 남은 값은 마지막에 거둔다.
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void fail(String message) {
+        System.err.println("FAILED: " + message);
+        System.exit(1);
+    }
+}
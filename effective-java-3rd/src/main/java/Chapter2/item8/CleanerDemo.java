@@ -0,0 +1,19 @@
+package Chapter2.item8;
+
+/**
+ * FinalizerDemo 를 ManagedResource 로 옮긴 것. try-with-resources 로 쓰면 close 에서 바로 정리되고,
+ * 잊고 버려도 Cleaner 가 정리한다.
+ */
+public class CleanerDemo extends ManagedResource {
+
+    public static final ResourceMetrics METRICS = new ResourceMetrics();
+
+    public CleanerDemo() {
+        super(() -> System.out.println("Clean up"), METRICS);
+    }
+
+    public void hello() {
+        ensureOpen();
+        System.out.println("hello");
+    }
+}
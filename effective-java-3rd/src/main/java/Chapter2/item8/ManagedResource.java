@@ -0,0 +1,80 @@
+package Chapter2.item8;
+
+import java.lang.ref.Cleaner;
+import java.util.Objects;
+
+/**
+ * finalize() 대신 Cleaner 를 안전망으로 쓰는 자원의 기반 클래스.
+ * 정석은 try-with-resources 로 close 하는 것이고, close 를 잊은 채 객체가 도달할 수 없게 되면 Cleaner 가 release 를 대신 부른다.
+ * finalizer 와 달리 객체가 finalize 대기열을 거치지 않으므로 GC 한 번에 바로 회수되고, release 는 Cleaner 스레드에서 한 번만 돈다.
+ *
+ * release 는 this 를 참조하면 안 된다. 참조하면 객체가 영영 도달 가능한 상태로 남아 안전망이 동작하지 않는다.
+ * 그래서 하위 클래스는 정리할 상태를 static 중첩 클래스나 this 를 캡처하지 않는 람다로 넘긴다.
+ */
+public abstract class ManagedResource implements AutoCloseable {
+
+    // Cleaner 는 스레드를 하나 만들므로 모든 자원이 하나를 나눠 쓴다.
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final State state;
+    private final Cleaner.Cleanable cleanable;
+
+    protected ManagedResource(Runnable release, ResourceMetrics metrics) {
+        this(explicitly -> release.run(), metrics);
+    }
+
+    /**
+     * close 로 닫혔는지 Cleaner 가 치웠는지에 따라 정리 방법이 다른 자원이 쓴다.
+     */
+    protected ManagedResource(Release release, ResourceMetrics metrics) {
+        this.state = new State(Objects.requireNonNull(release), Objects.requireNonNull(metrics));
+        this.cleanable = CLEANER.register(this, state);
+        metrics.opened();
+    }
+
+    /**
+     * 여러 번 불러도 release 는 한 번만 돈다.
+     */
+    @Override
+    public final void close() {
+        state.explicitly = true;
+        cleanable.clean();
+    }
+
+    public final boolean isClosed() {
+        return state.released;
+    }
+
+    protected final void ensureOpen() {
+        if (state.released) {
+            throw new IllegalStateException(getClass().getSimpleName() + " is closed");
+        }
+    }
+
+    @FunctionalInterface
+    protected interface Release {
+
+        void run(boolean explicitly);
+    }
+
+    private static final class State implements Runnable {
+
+        final Release release;
+        final ResourceMetrics metrics;
+        volatile boolean explicitly;
+        volatile boolean released;
+
+        State(Release release, ResourceMetrics metrics) {
+            this.release = release;
+            this.metrics = metrics;
+        }
+
+        // close 에서 불리거나, close 되지 않은 채 버려졌을 때 Cleaner 스레드에서 불린다.
+        @Override
+        public void run() {
+            released = true;
+            metrics.released(explicitly);
+            release.run(explicitly);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Chapter2.item8;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ManagedResource 가 몇 개 열리고, 그중 몇 개가 close 로 닫혔고 몇 개가 안전망(Cleaner)으로 치워졌는지 센다.
+ * cleaned 가 늘어난다는 것은 누군가 try-with-resources 없이 자원을 쓰고 버리고 있다는 뜻이다.
+ * 여러 스레드가 동시에 세므로 LongAdder 를 쓴다.
+ */
+public final class ResourceMetrics {
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder cleaned = new LongAdder();
+
+    void opened() {
+        opened.increment();
+    }
+
+    void released(boolean explicitly) {
+        (explicitly ? closed : cleaned).increment();
+    }
+
+    public long openedCount() {
+        return opened.sum();
+    }
+
+    public long closedCount() {
+        return closed.sum();
+    }
+
+    /**
+     * close 되지 않아 Cleaner 가 대신 정리한 수.
+     */
+    public long cleanedCount() {
+        return cleaned.sum();
+    }
+
+    /**
+     * 아직 정리되지 않은 수. 도달할 수 없게 됐지만 Cleaner 가 아직 돌지 않은 것도 포함된다.
+     */
+    public long liveCount() {
+        return opened.sum() - closed.sum() - cleaned.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceMetrics{opened=" + openedCount() + ", closed=" + closedCount()
+            + ", cleaned=" + cleanedCount() + '}';
+    }
+}
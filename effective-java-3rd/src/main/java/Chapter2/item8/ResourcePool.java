@@ -0,0 +1,121 @@
+package Chapter2.item8;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 만들기 비싼 자원을 재사용하는 풀. acquire 가 돌려주는 Lease 를 close 하면 자원이 풀로 돌아온다.
+ * Lease 도 ManagedResource 라서, close 를 잊고 버린 Lease 의 자원은 Cleaner 가 destroy 로 정리하고 metrics 의 cleaned 로 센다.
+ * Lease 가 버려져도 get 으로 꺼낸 자원은 아직 누가 쓰고 있을 수 있으므로 풀에 되돌리지 않는다.
+ * 쉬는 자원이 maxIdle 을 넘으면 넘친 것은 destroy 로 정리한다.
+ */
+public class ResourcePool<R> implements AutoCloseable {
+
+    private final Supplier<? extends R> factory;
+    private final Consumer<? super R> destroy;
+    private final int maxIdle;
+    private final ConcurrentLinkedDeque<R> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final ResourceMetrics metrics = new ResourceMetrics();
+    private volatile boolean closed;
+
+    public ResourcePool(Supplier<? extends R> factory, Consumer<? super R> destroy, int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle: " + maxIdle);
+        }
+        this.factory = Objects.requireNonNull(factory);
+        this.destroy = Objects.requireNonNull(destroy);
+        this.maxIdle = maxIdle;
+    }
+
+    public Lease<R> acquire() {
+        if (closed) {
+            throw new IllegalStateException("pool is closed");
+        }
+        R resource = idle.pollFirst();
+        if (resource == null) {
+            resource = factory.get();
+            created.incrementAndGet();
+        } else {
+            idleCount.decrementAndGet();
+        }
+        return new Lease<>(this, resource);
+    }
+
+    /**
+     * 지금까지 factory 로 새로 만든 자원 수. 재사용이 잘 되면 동시에 빌려 간 최대 수 근처에 머문다.
+     */
+    public int createdCount() {
+        return created.get();
+    }
+
+    public ResourceMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * 쉬고 있는 자원을 모두 정리한다. 빌려 간 자원은 돌아오는 대로 정리된다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        drain();
+    }
+
+    private void release(R resource, boolean explicitly) {
+        if (explicitly) {
+            giveBack(resource);
+        } else {
+            destroy.accept(resource);
+        }
+    }
+
+    private void giveBack(R resource) {
+        if (closed) {
+            destroy.accept(resource);
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            destroy.accept(resource);
+            return;
+        }
+        // 가장 최근에 돌려준 자원을 먼저 빌려주면 캐시에 남아 있을 가능성이 크다.
+        idle.offerFirst(resource);
+        if (closed) {
+            // close 와 겹쳤으면 방금 넣은 것도 정리한다.
+            drain();
+        }
+    }
+
+    private void drain() {
+        R resource;
+        while ((resource = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            destroy.accept(resource);
+        }
+    }
+
+    /**
+     * 빌려 간 자원 하나. try-with-resources 로 쓴다.
+     */
+    public static final class Lease<R> extends ManagedResource {
+
+        private final R resource;
+
+        private Lease(ResourcePool<R> pool, R resource) {
+            // 람다는 pool 과 resource 만 캡처하고 Lease 자신은 캡처하지 않는다.
+            super(explicitly -> pool.release(resource, explicitly), pool.metrics);
+            this.resource = resource;
+        }
+
+        public R get() {
+            ensureOpen();
+            return resource;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package Chapter7;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 0 부터 n 까지의 합을 여러 방식으로 구해 비교한다.
+ * effective-java-3rd 의 AutoBoxingDemo 가 currentTimeMillis 로 잰 것을 JMH 로 다시 잰 것이다.
+ *
+ * 연산 하나가 합 전체를 구하는 것이라 초당 연산 수는 1 안팎이다.
+ * build.gradle 에서 gc 프로파일러를 켜 두었으므로 gc.alloc.rate.norm 이 연산당 할당 바이트다.
+ * n 을 줄여 빨리 돌려 보려면 -p n=10000000 을 준다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ParallelStreamBenchmark {
+
+    @Param("2147483647")
+    long n;
+
+    /**
+     * Long 으로 더하므로 더할 때마다 Long 하나가 생긴다.
+     */
+    @Benchmark
+    public Long boxedLoop() {
+        Long sum = 0L;
+        for (long i = 0; i <= n; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long primitiveLoop() {
+        long sum = 0;
+        for (long i = 0; i <= n; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sequentialStream() {
+        return LongStream.rangeClosed(0, n).sum();
+    }
+
+    /**
+     * rangeClosed 는 크기를 알고 반씩 정확히 나뉘므로 병렬화가 잘 된다.
+     */
+    @Benchmark
+    public long parallelStream() {
+        return LongStream.rangeClosed(0, n).parallel().sum();
+    }
+
+    @Benchmark
+    public long forkJoin() {
+        return ForkJoinSumCalculator.forkJoinSum(n);
+    }
+}
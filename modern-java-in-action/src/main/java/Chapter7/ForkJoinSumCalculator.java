@@ -0,0 +1,53 @@
+package Chapter7;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * [start, end) 구간의 합을 포크/조인으로 구한다.
+ * 책의 예제는 long[] 을 나누지만, 0..Integer.MAX_VALUE 를 배열로 만들면 16GB 가 필요하므로 구간의 경계만 나눈다.
+ */
+public class ForkJoinSumCalculator extends RecursiveTask<Long> {
+
+    // 이보다 작은 구간은 더 나누지 않고 순차로 더한다.
+    public static final long THRESHOLD = 1 << 16;
+
+    private final long start;
+    private final long end;
+
+    public ForkJoinSumCalculator(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected Long compute() {
+        long length = end - start;
+        if (length <= THRESHOLD) {
+            return computeSequentially();
+        }
+        long middle = start + length / 2;
+        ForkJoinSumCalculator leftTask = new ForkJoinSumCalculator(start, middle);
+        leftTask.fork();
+        ForkJoinSumCalculator rightTask = new ForkJoinSumCalculator(middle, end);
+        // 오른쪽은 지금 스레드에서 바로 계산해 태스크 하나를 큐에 넣지 않아도 되게 한다.
+        long rightResult = rightTask.compute();
+        long leftResult = leftTask.join();
+        return leftResult + rightResult;
+    }
+
+    private long computeSequentially() {
+        long sum = 0;
+        for (long i = start; i < end; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    /**
+     * 0 부터 n 까지(n 포함)의 합.
+     */
+    public static long forkJoinSum(long n) {
+        return ForkJoinPool.commonPool().invoke(new ForkJoinSumCalculator(0, n + 1));
+    }
+}
@@ -0,0 +1,38 @@
+package com.study.springcore;
+
+import java.io.File;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 서비스와 분할 저장소 벤치마크를 1/8/32 스레드로 돌리고 스레드 수마다 JSON 결과를 남긴다.
+ * 릴리스마다 같은 디렉터리에 쌓아 두면 버전끼리 비교할 수 있다.
+ *
+ * 사용법: BenchmarkRunner [결과 디렉터리] [버전] [include 정규식]
+ */
+public class BenchmarkRunner {
+
+    private static final int[] THREADS = {1, 8, 32};
+
+    public static void main(String[] args) throws RunnerException {
+        File directory = new File(args.length > 0 ? args[0] : "build/reports/jmh");
+        String version = args.length > 1 ? args[1] : "dev";
+        String include = args.length > 2 ? args[2] : "(MemberService|OrderService|Context|PartitionedMemberRepository)Benchmark";
+        directory.mkdirs();
+
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                .include(include)
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(directory, "results-" + version + "-" + threads + "t.json").getPath())
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.study.springcore;
+
+import com.study.springcore.service.MemberService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * 이미 만들어진 컨테이너에서 싱글톤 빈을 꺼내는 비용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBenchmark {
+
+    AnnotationConfigApplicationContext ac;
+
+    @Setup
+    public void setUp() {
+        ac = new AnnotationConfigApplicationContext(AppConfig.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ac.close();
+    }
+
+    @Benchmark
+    public MemberService getBeanByType() {
+        return ac.getBean(MemberService.class);
+    }
+
+    @Benchmark
+    public MemberService getBeanByName() {
+        return ac.getBean("memberService", MemberService.class);
+    }
+}
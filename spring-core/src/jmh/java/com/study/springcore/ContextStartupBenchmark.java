@@ -0,0 +1,35 @@
+package com.study.springcore;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * AppConfig 로 컨테이너를 만들고 닫는 비용. 테넌트마다 컨테이너를 만드는 상황을 흉내 낸다.
+ * spring.index.ignore 는 클래스가 처음 로드될 때 한 번만 읽히기 때문에 포크를 나눠서 비교한다.
+ * -prof gc 를 함께 주면 한 번 만들 때 할당하는 바이트 수도 볼 수 있다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ContextStartupBenchmark {
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dspring.index.ignore=false")
+    public void refreshWithComponentIndex() {
+        new AnnotationConfigApplicationContext(AppConfig.class).close();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dspring.index.ignore=true")
+    public void refreshWithClasspathScan() {
+        new AnnotationConfigApplicationContext(AppConfig.class).close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.study.springcore.domain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 회원 1,000만 명에서 VIP 를 모두 찾는 비용. mapFilter 는 인덱스가 없을 때처럼 맵 전체를 걸러 내고,
+ * findByGrade 는 등급 비트맵을 훑는다. vipPercent 가 작을수록 건너뛰는 슬롯이 많아 차이가 커진다.
+ * findById 와 mapGet 은 인덱스를 유지해도 단건 조회가 느려지지 않는지 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MemberScanBenchmark {
+
+    @Param({"10000000"})
+    int members;
+
+    @Param({"1", "10"})
+    int vipPercent;
+
+    ConcurrentMemberRepository repository;
+    Map<Long, Member> map;
+
+    @Setup
+    public void setUp() {
+        repository = new ConcurrentMemberRepository();
+        map = new ConcurrentHashMap<>(members * 4 / 3 + 1);
+        for (int i = 0; i < members; i++) {
+            Member member = new Member((long) i, "member" + i, i % 100 < vipPercent ? Grade.VIP : Grade.BASIC);
+            repository.save(member);
+            map.put(member.getId(), member);
+        }
+    }
+
+    @Benchmark
+    public long mapFilter() {
+        return map.values().stream().filter(member -> member.getGrade() == Grade.VIP).count();
+    }
+
+    @Benchmark
+    public long mapFilterParallel() {
+        return map.values().parallelStream().filter(member -> member.getGrade() == Grade.VIP).count();
+    }
+
+    @Benchmark
+    public long findByGrade() {
+        return repository.findByGrade(Grade.VIP).count();
+    }
+
+    @Benchmark
+    public long findByGradeParallel() {
+        return repository.findByGrade(Grade.VIP).parallel().count();
+    }
+
+    @Benchmark
+    public long scanParallel() {
+        return repository.scan().parallel().filter(member -> member.getGrade() == Grade.VIP).count();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Member findById() {
+        return repository.findById((long) ThreadLocalRandom.current().nextInt(members));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Member mapGet() {
+        return map.get((long) ThreadLocalRandom.current().nextInt(members));
+    }
+}
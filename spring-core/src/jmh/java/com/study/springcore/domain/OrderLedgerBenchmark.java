@@ -0,0 +1,92 @@
+package com.study.springcore.domain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 주문 1,000만 건이 쌓인 원장에서 매출을 집계하는 시간과, 원장에 주문 하나를 덧붙이는 비용.
+ * mapped 면 봉인한 세그먼트를 임시 디렉터리의 파일로 옮겨 mmap 한다.
+ * append 는 BenchmarkRunner 로 여러 스레드에서 돌려 행 번호 경합을 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderLedgerBenchmark {
+
+    private static final long START = 1_600_000_000_000L;
+
+    @Param({"10000000"})
+    int orders;
+
+    @Param({"heap", "mapped"})
+    String storage;
+
+    OrderLedger ledger;
+
+    @Setup
+    public void setUp() throws IOException {
+        ledger = storage.equals("mapped") ? new OrderLedger(Files.createTempDirectory("ledger")) : new OrderLedger();
+        for (int i = 0; i < orders; i++) {
+            Grade grade = i % 10 == 0 ? Grade.VIP : Grade.BASIC;
+            // 1초에 100건씩 들어온 것으로 친다.
+            ledger.append(new Order(i % 100_000, "item" + i % 100, 10000 + i % 1000, grade == Grade.VIP ? 1000 : 0),
+                grade, START + i * 10L);
+        }
+    }
+
+    @Benchmark
+    public long revenue() {
+        return ledger.totals().revenue();
+    }
+
+    @Benchmark
+    public long vipDiscount() {
+        return ledger.totals(Grade.VIP).getDiscountPrice();
+    }
+
+    /**
+     * 전체 기간의 10% 에 해당하는 구간. 구간 밖의 세그먼트는 훑지 않는다.
+     */
+    @Benchmark
+    public long windowRevenue() {
+        long span = orders * 10L;
+        return ledger.totals(START + span / 2, START + span / 2 + span / 10).revenue();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long append(Appending appending) {
+        return appending.ledger.append(appending.order, Grade.VIP);
+    }
+
+    /**
+     * append 가 쌓는 주문으로 힙이 차지 않도록 반복마다 빈 원장으로 시작한다.
+     */
+    @State(Scope.Benchmark)
+    public static class Appending {
+
+        OrderLedger ledger;
+        Order order = new Order(1L, "itemA", 10000, 1000);
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            ledger = new OrderLedger();
+        }
+    }
+}
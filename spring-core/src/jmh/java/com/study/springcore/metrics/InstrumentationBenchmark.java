@@ -0,0 +1,96 @@
+package com.study.springcore.metrics;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.Order;
+import com.study.springcore.service.FixDiscountPolicy;
+import com.study.springcore.service.MemberService;
+import com.study.springcore.service.MemberServiceImpl;
+import com.study.springcore.service.OrderService;
+import com.study.springcore.service.OrderServiceImpl;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 계측이 호출마다 더하는 비용. plain 과 instrumented 의 차이가 데코레이터 비용이고,
+ * record 는 히스토그램에 한 번 기록하는 비용만 따로 잰 것이다.
+ * BenchmarkRunner 에 "InstrumentationBenchmark" 를 넘기면 1/8/32 스레드로 돌려 스트라이프 경합도 볼 수 있다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    MemberService plainMemberService;
+    MemberService instrumentedMemberService;
+    OrderService plainOrderService;
+    OrderService instrumentedOrderService;
+    LatencyHistogram histogram;
+
+    @Setup
+    public void setUp() {
+        ConcurrentMemberRepository repository = new ConcurrentMemberRepository();
+        for (int i = 0; i < members; i++) {
+            repository.save(new Member((long) i, "member" + i, i % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        ServiceMetrics metrics = new ServiceMetrics();
+        InstrumentationPostProcessor postProcessor = new InstrumentationPostProcessor(metrics);
+
+        plainMemberService = new MemberServiceImpl(repository);
+        plainOrderService = new OrderServiceImpl(new FixDiscountPolicy(), repository);
+        instrumentedMemberService = (MemberService) postProcessor.postProcessAfterInitialization(
+            new MemberServiceImpl(repository), "memberService");
+        instrumentedOrderService = (OrderService) postProcessor.postProcessAfterInitialization(
+            new OrderServiceImpl(
+                new InstrumentedDiscountPolicy(new FixDiscountPolicy(), metrics, "fixDiscountPolicy"),
+                new InstrumentedMemberRepository(repository, metrics, "memberRepository")),
+            "orderService");
+        histogram = metrics.latency("record");
+    }
+
+    @Benchmark
+    public Member plainFindMember() {
+        return plainMemberService.findMember((long) ThreadLocalRandom.current().nextInt(members));
+    }
+
+    @Benchmark
+    public Member instrumentedFindMember() {
+        return instrumentedMemberService.findMember((long) ThreadLocalRandom.current().nextInt(members));
+    }
+
+    @Benchmark
+    public Order plainCreateOrder() {
+        return plainOrderService.createOrder(ThreadLocalRandom.current().nextInt(members), "itemA", 10000);
+    }
+
+    /**
+     * 서비스, 할인 정책, 저장소가 모두 감싸진 경우다. 컨테이너에서 EnableServiceMetrics 를 켠 것과 같다.
+     */
+    @Benchmark
+    public Order instrumentedCreateOrder() {
+        return instrumentedOrderService.createOrder(ThreadLocalRandom.current().nextInt(members), "itemA", 10000);
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+}
@@ -0,0 +1,167 @@
+package com.study.springcore.partition;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.sun.tools.attach.AttachNotSupportedException;
+import com.sun.tools.attach.VirtualMachine;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 샤드 1~8 개에 회원 100만 명을 나눠 담았을 때의 처리량. local 은 같은 JVM 안의 LocalMemberShard,
+ * process 는 RemoteMemberShard.launch 로 띄운 샤드 프로세스에 루프백 소켓으로 붙는다.
+ * findAllById 는 샤드마다 요청 한 번으로 묶어 보내므로, 샤드가 늘어도 요청 수는 샤드 수만큼만 는다.
+ *
+ * 샤드 하나가 쓰는 메모리는 setUp 에서 샤드를 하나씩 채우며 채우기 전과 뒤의 GC 뒤 힙 차이로 재서 출력한다.
+ * local 은 이 JVM 의 MemoryMXBean 으로, process 는 샤드 JVM 에 붙여 띄운 JMX 에이전트의 MemoryMXBean 으로 잰다.
+ * 기본은 8 스레드로 돌고, BenchmarkRunner 로 돌리면 1/8/32 스레드로 연결 수에 따른 차이를 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+public class PartitionedMemberRepositoryBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Param({"1000000"})
+    int members;
+
+    @Param({"1", "2", "4", "8"})
+    int shards;
+
+    @Param({"local", "process"})
+    String mode;
+
+    ExecutorService executor;
+    PartitionedMemberRepository repository;
+    List<JMXConnector> connectors = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "partition-benchmark");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<MemberShard> list = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            list.add("process".equals(mode) ? RemoteMemberShard.launch("-Xmx1g") : new LocalMemberShard());
+        }
+        repository = new PartitionedMemberRepository(list, executor);
+
+        long[] footprint = new long[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            MemoryMXBean memory = "process".equals(mode)
+                ? remoteMemory(((RemoteMemberShard) list.get(shard)).pid())
+                : ManagementFactory.getMemoryMXBean();
+            long before = usedHeapAfterGc(memory);
+            fill(shard);
+            footprint[shard] = usedHeapAfterGc(memory) - before;
+        }
+        System.out.println("members per shard " + Arrays.toString(repository.shardSizes())
+            + ", heap per shard (MB) " + Arrays.toString(Arrays.stream(footprint).map(bytes -> bytes >> 20).toArray()));
+    }
+
+    /**
+     * shard 가 맡은 회원만 골라 저장한다.
+     */
+    private void fill(int shard) {
+        List<Member> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < members; i++) {
+            if (repository.shardOf(i) != shard) {
+                continue;
+            }
+            batch.add(new Member((long) i, "member" + i, i % 10 == 0 ? Grade.VIP : Grade.BASIC));
+            if (batch.size() == 10_000) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+
+    /**
+     * 샤드 프로세스에 붙어 JMX 에이전트를 띄우고 그 JVM 의 MemoryMXBean 을 가져온다.
+     */
+    private MemoryMXBean remoteMemory(long pid) throws IOException {
+        String address;
+        try {
+            VirtualMachine vm = VirtualMachine.attach(String.valueOf(pid));
+            try {
+                address = vm.startLocalManagementAgent();
+            } finally {
+                vm.detach();
+            }
+        } catch (AttachNotSupportedException e) {
+            throw new IOException("cannot attach to member shard process " + pid, e);
+        }
+        JMXConnector connector = JMXConnectorFactory.connect(new JMXServiceURL(address));
+        connectors.add(connector);
+        return ManagementFactory.newPlatformMXBeanProxy(connector.getMBeanServerConnection(),
+            ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (JMXConnector connector : connectors) {
+            connector.close();
+        }
+        repository.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Member findById() {
+        return repository.findById((long) ThreadLocalRandom.current().nextInt(members));
+    }
+
+    @Benchmark
+    public void save() {
+        long id = ThreadLocalRandom.current().nextInt(members);
+        repository.save(new Member(id, "member" + id, Grade.VIP));
+    }
+
+    @Benchmark
+    public Map<Long, Member> findAllById() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> ids = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            ids.add((long) random.nextInt(members));
+        }
+        return repository.findAllById(ids);
+    }
+}
@@ -0,0 +1,85 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 상수 하나로 계산하는 기존 정책들과 규칙 수백 개를 컴파일한 RuleTableDiscountPolicy 를 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscountPolicyBenchmark {
+
+    private static final int MAX_PRICE = 1_000_000;
+
+    @Param({"10", "300"})
+    int bandsPerGrade;
+
+    @Param({"100"})
+    int items;
+
+    Member[] members;
+    DiscountPolicy fixDiscountPolicy = new FixDiscountPolicy();
+    DiscountPolicy rateDiscountPolicy = new RateDiscountPolicy();
+    RuleTableDiscountPolicy ruleTableDiscountPolicy;
+
+    @Setup
+    public void setUp() {
+        members = new Member[]{new Member(1L, "basic", Grade.BASIC), new Member(2L, "vip", Grade.VIP)};
+
+        List<DiscountRule> rules = new ArrayList<>();
+        int width = MAX_PRICE / bandsPerGrade;
+        for (Grade grade : Grade.values()) {
+            for (int band = 0; band < bandsPerGrade; band++) {
+                rules.add(DiscountRule.rate(grade, band * width, (band + 1) * width, band % 30));
+            }
+            for (int item = 0; item < items; item++) {
+                rules.add(DiscountRule.amount(grade, 0, MAX_PRICE, item * 10).forItem("item" + item));
+            }
+        }
+        ruleTableDiscountPolicy = new RuleTableDiscountPolicy(rules);
+    }
+
+    @Benchmark
+    public long fix() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return fixDiscountPolicy.discount(members[random.nextInt(2)], random.nextInt(MAX_PRICE));
+    }
+
+    @Benchmark
+    public long rate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return rateDiscountPolicy.discount(members[random.nextInt(2)], random.nextInt(MAX_PRICE));
+    }
+
+    @Benchmark
+    public long ruleTable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return ruleTableDiscountPolicy.discount(members[random.nextInt(2)], random.nextInt(MAX_PRICE));
+    }
+
+    @Benchmark
+    public long ruleTableWithItem() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return ruleTableDiscountPolicy.discount(members[random.nextInt(2)], "item7", random.nextInt(MAX_PRICE));
+    }
+}
@@ -0,0 +1,80 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 회원 100만 명짜리 CSV 를 새 저장소로 들여오는 속도. 결과는 초당 회원 수이고 1 이상(백만/초)이 목표다.
+ * join 은 같은 파일을 한 줄씩 읽어 MemberService.join 으로 넣는 지금까지의 방식이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MemberImportBenchmark {
+
+    private static final int MEMBERS = 1_000_000;
+
+    @Param({"1", "4", "8"})
+    int parsers;
+
+    Path csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        csv = Files.createTempFile("members", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,name,grade\n");
+            for (int id = 0; id < MEMBERS; id++) {
+                writer.write(id + ",member" + id + "," + (id % 10 == 0 ? "VIP" : "BASIC") + "\n");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public long importCsv() throws IOException {
+        return new MemberImporter(new ConcurrentMemberRepository(), parsers, 1 << 20).importCsv(csv);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public long join() throws IOException {
+        MemberService memberService = new MemberServiceImpl(new ConcurrentMemberRepository());
+        try (Stream<String> lines = Files.lines(csv, StandardCharsets.UTF_8)) {
+            lines.skip(1).forEach(line -> {
+                String[] fields = line.split(",");
+                memberService.join(new Member(Long.parseLong(fields[0]), fields[1], Grade.valueOf(fields[2])));
+            });
+        }
+        return MEMBERS;
+    }
+}
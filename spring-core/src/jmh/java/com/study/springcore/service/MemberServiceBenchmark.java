@@ -0,0 +1,54 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberServiceBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    MemberService memberService;
+    Member[] joining;
+
+    @Setup
+    public void setUp() {
+        memberService = new MemberServiceImpl(new ConcurrentMemberRepository());
+        joining = new Member[members];
+        for (int i = 0; i < members; i++) {
+            joining[i] = new Member((long) i, "member" + i, i % 10 == 0 ? Grade.VIP : Grade.BASIC);
+            memberService.join(joining[i]);
+        }
+    }
+
+    @Benchmark
+    public void join() {
+        // 같은 id 로 덮어쓰기 때문에 측정 중에 저장소 크기가 변하지 않는다.
+        memberService.join(joining[ThreadLocalRandom.current().nextInt(members)]);
+    }
+
+    @Benchmark
+    public Member findMember() {
+        return memberService.findMember((long) ThreadLocalRandom.current().nextInt(members));
+    }
+}
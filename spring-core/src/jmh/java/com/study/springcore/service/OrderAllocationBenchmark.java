@@ -0,0 +1,72 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import com.study.springcore.domain.OrderBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 주문 하나당 할당량을 비교한다. -prof gc 의 gc.alloc.rate.norm 을 보면 된다.
+ * createOrder 는 주문마다 Order 를 만들고, priceOrders 는 재사용 버퍼에 값만 채운다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderAllocationBenchmark {
+
+    private static final int ORDERS = 1024;
+    private static final int MEMBERS = 10_000;
+
+    OrderService orderService;
+    OrderBuffer buffer = new OrderBuffer(ORDERS);
+    long[] memberIds = new long[ORDERS];
+    int[] prices = new int[ORDERS];
+
+    @Setup
+    public void setUp() {
+        MemberRepository memberRepository = new ConcurrentMemberRepository();
+        for (long id = 0; id < MEMBERS; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        orderService = new OrderServiceImpl(new RateDiscountPolicy(), memberRepository);
+        for (int i = 0; i < ORDERS; i++) {
+            memberIds[i] = (i * 7919L) % MEMBERS;
+            prices[i] = 1000 + i * 97;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void createOrder(Blackhole blackhole) {
+        for (int i = 0; i < ORDERS; i++) {
+            blackhole.consume(orderService.createOrder(memberIds[i], "itemA", prices[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public long priceOrders() {
+        buffer.clear();
+        for (int i = 0; i < ORDERS; i++) {
+            buffer.add(memberIds[i], "itemA", prices[i]);
+        }
+        return orderService.priceOrders(buffer).totalPrice();
+    }
+}
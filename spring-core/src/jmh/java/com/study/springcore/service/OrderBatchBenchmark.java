@@ -0,0 +1,80 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import com.study.springcore.domain.OffHeapMemberRepository;
+import com.study.springcore.domain.Order;
+import com.study.springcore.domain.OrderRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * createOrder 를 반복 호출하는 것과 createOrders 로 한 번에 처리하는 것을 비교한다.
+ * 체크아웃 버스트처럼 소수의 회원이 주문 대부분을 차지하는 상황을 흉내 낸다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBatchBenchmark {
+
+    @Param({"concurrent", "offHeap"})
+    String repository;
+
+    @Param({"1000"})
+    int batchSize;
+
+    @Param({"100"})
+    int distinctMembers;
+
+    OrderService orderService;
+    List<OrderRequest> requests;
+
+    @Setup
+    public void setUp() {
+        MemberRepository memberRepository = repository.equals("offHeap")
+            ? new OffHeapMemberRepository() : new ConcurrentMemberRepository();
+        for (long id = 0; id < distinctMembers; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        orderService = new OrderServiceImpl(new RateDiscountPolicy(), memberRepository);
+
+        Random random = new Random(42);
+        requests = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            long memberId = random.nextInt(distinctMembers);
+            requests.add(new OrderRequest(memberId, "item" + i, 1000 + random.nextInt(100_000)));
+        }
+    }
+
+    @Benchmark
+    public void createOrderLoop(Blackhole blackhole) {
+        for (OrderRequest request : requests) {
+            blackhole.consume(
+                orderService.createOrder(request.getMemberId(), request.getItemName(), request.getItemPrice()));
+        }
+    }
+
+    @Benchmark
+    public List<Order> createOrders() {
+        return orderService.createOrders(requests);
+    }
+}
@@ -0,0 +1,53 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import com.study.springcore.domain.Order;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"fix", "rate"})
+    String discountPolicy;
+
+    @Param({"10000"})
+    int members;
+
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        MemberRepository memberRepository = new ConcurrentMemberRepository();
+        for (long id = 0; id < members; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        DiscountPolicy policy = discountPolicy.equals("fix") ? new FixDiscountPolicy() : new RateDiscountPolicy();
+        orderService = new OrderServiceImpl(policy, memberRepository);
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return orderService.createOrder((long) random.nextInt(members), "itemA", 1000 + random.nextInt(100_000));
+    }
+}
@@ -1,5 +1,8 @@
 package com.study.springcore;
 
+import com.study.springcore.service.ServiceExecutors;
+import java.util.concurrent.ExecutorService;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
@@ -7,4 +10,10 @@ import org.springframework.context.annotation.Configuration;
 @ComponentScan
 public class AppConfig {
 
+    // 비동기 서비스가 공유하는 실행기. 컨테이너가 닫힐 때 shutdown 된다.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService serviceExecutor() {
+        return ServiceExecutors.newServiceExecutor();
+    }
+
 }
@@ -0,0 +1,196 @@
+package com.study.springcore.domain;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 어떤 MemberRepository 든 감쌀 수 있는 읽기 캐시.
+ * 세그먼트마다 segmented LRU(probation + protected) 로 관리한다. 처음 들어온 회원은 probation 에 들어가고,
+ * 한 번 더 조회되면 protected 로 올라간다. 그래서 한 번 훑고 지나가는 조회가 자주 쓰는 회원을 밀어내지 못한다.
+ * 최대 크기를 넘으면 probation 의 가장 오래된 회원부터 내보내므로 메모리 사용량이 GC 와 상관없이 정해진다.
+ */
+public class CachingMemberRepository implements MemberRepository {
+
+    private static final float PROTECTED_RATIO = 0.8f;
+
+    private final MemberRepository delegate;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingMemberRepository(MemberRepository delegate, int maximumSize) {
+        this(delegate, maximumSize, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public CachingMemberRepository(MemberRepository delegate, int maximumSize, int concurrencyLevel) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.delegate = delegate;
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel && segmentCount * 2 <= maximumSize) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // 나머지를 앞쪽 세그먼트에 나눠 줘서 전체 합이 maximumSize 와 같게 한다.
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    @Override
+    public void save(Member member) {
+        delegate.save(member);
+        segmentFor(member.getId()).update(member);
+    }
+
+    @Override
+    public void saveAll(List<Member> members) {
+        delegate.saveAll(members);
+        for (Member member : members) {
+            segmentFor(member.getId()).update(member);
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        Segment segment = segmentFor(id);
+        Member cached = segment.get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long version = segment.version();
+        Member member = delegate.findById(id);
+        if (member != null) {
+            segment.putIfUnchanged(id, member, version);
+        }
+        return member;
+    }
+
+    /**
+     * 훑기는 캐시를 거치지 않고 감싼 저장소에 맡긴다. 한 번 훑는 조회가 캐시를 채우지 않게 하기 위해서다.
+     */
+    @Override
+    public Stream<Member> scan() {
+        return delegate.scan();
+    }
+
+    @Override
+    public Stream<Member> findByGrade(Grade grade) {
+        return delegate.findByGrade(grade);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 1.0 : (double) hit / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(Long id) {
+        int h = id.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (segments.length - 1)];
+    }
+
+    private final class Segment {
+
+        private final int capacity;
+        private final int protectedCapacity;
+        private final LinkedHashMap<Long, Member> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Long, Member> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+        // save 가 일어날 때마다 올린다. 저장소에서 읽어 오는 동안 save 가 끼어들었으면 읽은 값을 캐시에 넣지 않는다.
+        private long version;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = (int) (capacity * PROTECTED_RATIO);
+        }
+
+        synchronized Member get(Long id) {
+            Member member = protectedArea.get(id);
+            if (member != null) {
+                return member;
+            }
+            member = probation.remove(id);
+            if (member != null) {
+                promote(id, member);
+            }
+            return member;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void putIfUnchanged(Long id, Member member, long expectedVersion) {
+            if (version != expectedVersion || protectedArea.containsKey(id) || probation.containsKey(id)) {
+                return;
+            }
+            probation.put(id, member);
+            evictIfNeeded();
+        }
+
+        synchronized void update(Member member) {
+            version++;
+            Long id = member.getId();
+            if (protectedArea.containsKey(id)) {
+                protectedArea.put(id, member);
+            } else if (probation.containsKey(id)) {
+                probation.put(id, member);
+            }
+        }
+
+        synchronized int size() {
+            return probation.size() + protectedArea.size();
+        }
+
+        private void promote(Long id, Member member) {
+            protectedArea.put(id, member);
+            if (protectedArea.size() > protectedCapacity) {
+                // protected 에서 밀려난 회원은 바로 버리지 않고 probation 의 가장 최근 자리로 돌려보낸다.
+                Iterator<Map.Entry<Long, Member>> eldest = protectedArea.entrySet().iterator();
+                Map.Entry<Long, Member> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+
+        private void evictIfNeeded() {
+            Iterator<Long> eldest = probation.keySet().iterator();
+            while (probation.size() + protectedArea.size() > capacity && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
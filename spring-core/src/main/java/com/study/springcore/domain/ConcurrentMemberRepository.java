@@ -0,0 +1,400 @@
+package com.study.springcore.domain;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * 여러 요청 스레드에서 동시에 join 해도 안전한 저장소.
+ * 쓰기는 id 해시로 나눈 세그먼트 단위로 잠그고, 읽기는 잠금 없이 수행한다.
+ *
+ * 세그먼트마다 회원에게 슬롯 번호를 주고, 슬롯 배열과 등급마다 슬롯 비트맵을 둔다. 회원은 이 구조에만 한 번 담긴다.
+ * save 는 자기 세그먼트만 잠그고, findById 는 id 를 박싱하지 않고 세그먼트의 슬롯 테이블을 잠금 없이 읽는다.
+ * scan 과 findByGrade 는 슬롯 배열과 비트맵을 직접 훑는 스트림이라 저장소를 복사하지 않고 병렬로 나눠 돌 수 있다.
+ */
+@Primary
+@Component
+public class ConcurrentMemberRepository implements MemberRepository {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final Grade[] GRADES = Grade.values();
+
+    private final Segment[] segments;
+
+    public ConcurrentMemberRepository() {
+        int segmentCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public void save(Member member) {
+        Segment segment = segmentFor(member.getId());
+        synchronized (segment) {
+            segment.put(member);
+        }
+    }
+
+    /**
+     * 회원을 세그먼트별로 모아 세그먼트마다 잠금을 한 번만 잡는다. 같은 세그먼트 안에서는 넘겨받은 순서를 지킨다.
+     */
+    @Override
+    public void saveAll(List<Member> members) {
+        int n = members.size();
+        int[] segmentOf = new int[n];
+        int[] ends = new int[segments.length];
+        for (int i = 0; i < n; i++) {
+            segmentOf[i] = segmentIndex(members.get(i).getId());
+            ends[segmentOf[i]]++;
+        }
+        for (int s = 1; s < ends.length; s++) {
+            ends[s] += ends[s - 1];
+        }
+        int[] order = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            order[--ends[segmentOf[i]]] = i;
+        }
+
+        // 이제 ends[s] 는 세그먼트 s 의 시작 위치다.
+        for (int s = 0; s < segments.length; s++) {
+            int from = ends[s];
+            int to = s + 1 < segments.length ? ends[s + 1] : n;
+            if (from == to) {
+                continue;
+            }
+            Segment segment = segments[s];
+            synchronized (segment) {
+                for (int k = from; k < to; k++) {
+                    segment.put(members.get(order[k]));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return findById(id.longValue());
+    }
+
+    @Override
+    public Member findById(long id) {
+        return segments[segmentIndex(id)].get(id);
+    }
+
+    /**
+     * 약하게 일관된 스트림을 돌려준다. 스트림을 만든 뒤에 새로 저장된 회원은 보이지 않을 수 있고,
+     * 훑는 도중에 다시 저장된 회원은 이전 값이나 새 값 중 하나로 한 번만 나온다.
+     */
+    @Override
+    public Stream<Member> scan() {
+        return stream(null);
+    }
+
+    /**
+     * 등급 비트맵에서 켜진 슬롯만 읽는다. 비어 있는 64개 슬롯은 long 하나를 읽고 건너뛴다.
+     * 등급이 없는 회원은 비트맵에 없으므로 grade 가 null 이면 scan 을 걸러서 돌려준다.
+     */
+    @Override
+    public Stream<Member> findByGrade(Grade grade) {
+        if (grade == null) {
+            return scan().filter(member -> member.getGrade() == null);
+        }
+        return stream(grade);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    private Stream<Member> stream(Grade grade) {
+        int count = 0;
+        int[] sizes = new int[segments.length];
+        Chunk[][] chunks = new Chunk[segments.length][];
+        for (int i = 0; i < segments.length; i++) {
+            // size 를 먼저 읽는다. 청크는 size 를 늘리기 전에 붙으므로 나중에 읽은 청크 배열이 size 를 모두 덮는다.
+            sizes[i] = segments[i].size;
+            chunks[i] = segments[i].chunks;
+            count += (sizes[i] + CHUNK_MASK) >>> CHUNK_SHIFT;
+        }
+
+        Chunk[] flat = new Chunk[count];
+        int[] limits = new int[count];
+        int n = 0;
+        for (int i = 0; i < segments.length; i++) {
+            for (int c = 0; c << CHUNK_SHIFT < sizes[i]; c++) {
+                flat[n] = chunks[i][c];
+                limits[n++] = Math.min(CHUNK_SIZE, sizes[i] - (c << CHUNK_SHIFT));
+            }
+        }
+        return StreamSupport.stream(new MemberSpliterator(flat, limits, 0, count, grade), false);
+    }
+
+    private Segment segmentFor(long id) {
+        return segments[segmentIndex(id)];
+    }
+
+    private int segmentIndex(long id) {
+        int h = Long.hashCode(id);
+        h ^= h >>> 16;
+        return h & (segments.length - 1);
+    }
+
+    /**
+     * 슬롯 CHUNK_SIZE 개의 회원과 등급별 비트맵. 한 세그먼트에만 속하므로 쓰기는 그 세그먼트의 잠금 안에서만 일어난다.
+     */
+    private static final class Chunk {
+
+        final AtomicReferenceArray<Member> members = new AtomicReferenceArray<>(CHUNK_SIZE);
+        final AtomicLongArray[] grades = new AtomicLongArray[GRADES.length];
+
+        Chunk() {
+            for (int i = 0; i < grades.length; i++) {
+                grades[i] = new AtomicLongArray(CHUNK_SIZE / Long.SIZE);
+            }
+        }
+
+        void mark(Grade grade, int offset, boolean on) {
+            if (grade == null) {
+                return;
+            }
+            AtomicLongArray bits = grades[grade.ordinal()];
+            int word = offset >>> 6;
+            long mask = 1L << offset;
+            // 쓰는 쪽은 세그먼트 잠금으로 하나뿐이라 읽고 다시 쓰면 된다. 읽는 쪽은 잠금 없이 volatile 로 읽는다.
+            bits.set(word, on ? bits.get(word) | mask : bits.get(word) & ~mask);
+        }
+
+        /**
+         * from 이상 limit 미만에서 grade 비트가 켜진 첫 슬롯. 없으면 limit. grade 가 null 이면 from 을 그대로 돌려준다.
+         */
+        int next(Grade grade, int from, int limit) {
+            if (grade == null || from >= limit) {
+                return from;
+            }
+            AtomicLongArray bits = grades[grade.ordinal()];
+            int word = from >>> 6;
+            int lastWord = (limit - 1) >>> 6;
+            long w = bits.get(word) & (-1L << from);
+            while (w == 0) {
+                if (++word > lastWord) {
+                    return limit;
+                }
+                w = bits.get(word);
+            }
+            return Math.min(limit, (word << 6) + Long.numberOfTrailingZeros(w));
+        }
+    }
+
+    private static final class Segment {
+
+        // 아래 필드는 모두 이 세그먼트의 잠금 안에서만 쓴다.
+        volatile SlotTable slots = new SlotTable(16);
+        volatile Chunk[] chunks = new Chunk[0];
+        volatile int size;
+
+        /**
+         * 잠금 없이 읽는다. 같은 id 를 저장하는 중이면 이전 회원이나 null 을 볼 수 있다.
+         */
+        Member get(long id) {
+            int slot = slots.get(id);
+            if (slot < 0) {
+                return null;
+            }
+            Chunk[] current = chunks;
+            int index = slot >> CHUNK_SHIFT;
+            return index < current.length ? current[index].members.get(slot & CHUNK_MASK) : null;
+        }
+
+        void put(Member member) {
+            int slot = slots.get(member.getId());
+            boolean added = slot < 0;
+            if (added) {
+                slot = size;
+                if (slot >> CHUNK_SHIFT == chunks.length) {
+                    Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                    grown[chunks.length] = new Chunk();
+                    chunks = grown;
+                }
+                if (!slots.add(member.getId(), slot)) {
+                    slots = slots.grow();
+                    slots.add(member.getId(), slot);
+                }
+            }
+
+            Chunk chunk = chunks[slot >> CHUNK_SHIFT];
+            int offset = slot & CHUNK_MASK;
+            Member previous = chunk.members.get(offset);
+            // 새 비트를 켜고 회원을 바꾼 뒤에 이전 비트를 끈다. 그 사이에 읽는 쪽은 등급을 다시 확인하므로 잘못 나가지 않는다.
+            chunk.mark(member.getGrade(), offset, true);
+            chunk.members.set(offset, member);
+            if (previous != null && previous.getGrade() != member.getGrade()) {
+                chunk.mark(previous.getGrade(), offset, false);
+            }
+            if (added) {
+                size = slot + 1;
+            }
+        }
+    }
+
+    /**
+     * 세그먼트의 id -> 슬롯 번호 open addressing 테이블. 쓰기는 세그먼트 잠금 안에서만 하고 읽기는 잠금 없이 한다.
+     * 칸에 id 를 쓴 뒤 슬롯 번호를 release 로 쓰므로, 번호가 보이는 칸은 id 도 보인다. 한 번 쓴 칸은 바뀌지 않는다.
+     * 꽉 차면 더 큰 테이블을 다 채운 다음 Segment.slots 를 바꿔 끼운다.
+     */
+    private static final class SlotTable {
+
+        private static final float LOAD_FACTOR = 0.7f;
+
+        private final long seed = ThreadLocalRandom.current().nextLong();
+        private final long[] ids;
+        private final AtomicIntegerArray slots; // 슬롯 번호 + 1. 0 이면 빈 칸이다.
+        private final int limit;
+        private int size;
+
+        SlotTable(int capacity) {
+            ids = new long[capacity];
+            slots = new AtomicIntegerArray(capacity);
+            limit = (int) (capacity * LOAD_FACTOR);
+        }
+
+        int get(long id) {
+            int mask = ids.length - 1;
+            for (int i = LongPositionIndex.mix(id, seed) & mask; ; i = (i + 1) & mask) {
+                int slot = slots.getAcquire(i);
+                if (slot == 0) {
+                    return -1;
+                }
+                if (ids[i] == id) {
+                    return slot - 1;
+                }
+            }
+        }
+
+        /**
+         * 없는 id 를 넣는다. 이미 LOAD_FACTOR 만큼 찼으면 넣지 않고 false 를 돌려준다.
+         */
+        boolean add(long id, int slot) {
+            if (size == limit) {
+                return false;
+            }
+            int mask = ids.length - 1;
+            int i = LongPositionIndex.mix(id, seed) & mask;
+            while (slots.getPlain(i) != 0) {
+                i = (i + 1) & mask;
+            }
+            ids[i] = id;
+            slots.setRelease(i, slot + 1);
+            size++;
+            return true;
+        }
+
+        SlotTable grow() {
+            SlotTable grown = new SlotTable(ids.length << 1);
+            for (int i = 0; i < ids.length; i++) {
+                int slot = slots.getPlain(i);
+                if (slot != 0) {
+                    grown.add(ids[i], slot - 1);
+                }
+            }
+            return grown;
+        }
+    }
+
+    /**
+     * 청크 범위 [index, fence) 를 훑는다. 나눌 때는 청크 단위로 반씩 나누므로 슬롯 배열이나 비트맵을 복사하지 않는다.
+     */
+    private static final class MemberSpliterator implements Spliterator<Member> {
+
+        private final Chunk[] chunks;
+        private final int[] limits;
+        private final Grade grade;
+        private final int fence;
+        private int index;
+        private int slot;
+
+        MemberSpliterator(Chunk[] chunks, int[] limits, int index, int fence, Grade grade) {
+            this.chunks = chunks;
+            this.limits = limits;
+            this.index = index;
+            this.fence = fence;
+            this.grade = grade;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Member> action) {
+            while (index < fence) {
+                Chunk chunk = chunks[index];
+                int limit = limits[index];
+                while ((slot = chunk.next(grade, slot, limit)) < limit) {
+                    Member member = chunk.members.get(slot++);
+                    if (matches(member)) {
+                        action.accept(member);
+                        return true;
+                    }
+                }
+                index++;
+                slot = 0;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Member> action) {
+            for (; index < fence; index++, slot = 0) {
+                Chunk chunk = chunks[index];
+                int limit = limits[index];
+                for (int s = chunk.next(grade, slot, limit); s < limit; s = chunk.next(grade, s + 1, limit)) {
+                    Member member = chunk.members.get(s);
+                    if (matches(member)) {
+                        action.accept(member);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<Member> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            MemberSpliterator prefix = new MemberSpliterator(chunks, limits, index, mid, grade);
+            prefix.slot = slot;
+            index = mid;
+            slot = 0;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return ((long) (fence - index) << CHUNK_SHIFT) - slot;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL | CONCURRENT;
+        }
+
+        private boolean matches(Member member) {
+            // 비트와 슬롯은 따로 바뀌므로 비트가 켜져 있어도 등급을 다시 본다.
+            return member != null && (grade == null || member.getGrade() == grade);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.study.springcore.domain;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 설정 클래스에 붙이면 만들어진 주문을 OrderLedger 에 기록한다. 붙이지 않으면 원장 빈이 없으므로 기록하지 않는다.
+ * 봉인한 세그먼트를 둘 디렉터리를 springcore.order-ledger.directory 속성으로 꼭 주어야 한다.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import(OrderLedgerConfiguration.class)
+public @interface EnableOrderLedger {
+}
@@ -0,0 +1,643 @@
+package com.study.springcore.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 재시작해도 회원이 남아 있는 파일 기반 저장소.
+ * save 는 mmap 한 로그(members-N.log)에 이어 쓰고, 로그가 커지면 살아 있는 레코드만 모아
+ * 스냅샷(members-N.snapshot)과 그 해시 인덱스(members-N.index)를 만든다.
+ * 기동할 때는 스냅샷과 인덱스를 mmap 만 하고 그 뒤의 로그만 훑기 때문에 회원을 하나씩 역직렬화하지 않는다.
+ *
+ * 압축은 쓰기 잠금 안에서 새 로그로 갈아타기만 하고, 스냅샷은 백그라운드 스레드가 잠금 밖에서 만든다.
+ * 그동안 조회는 새 로그, 얼린 로그, 이전 스냅샷 순으로 찾는다.
+ */
+public class FileMemberRepository implements MemberRepository, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileMemberRepository.class);
+    private static final long DEFAULT_COMPACT_THRESHOLD = 1L << 30;
+    private static final int FILE_SHIFT = 48;
+    private static final long POSITION_MASK = (1L << FILE_SHIFT) - 1;
+    private static final int SCAN_BATCH = 4096;
+    private static final Pattern FILE_NAME = Pattern.compile("members-(\\d+)\\.(snapshot|index|log)");
+    private static final Executor COMPACTOR = runnable -> {
+        Thread thread = new Thread(runnable, "member-compaction");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final Path directory;
+    private final long compactThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // files.get(0) 은 스냅샷이고 없으면 null 이다. 나머지는 로그이고, 압축이 끝나 지운 로그 자리는 null 로 비워 다시 쓴다.
+    // 위치는 이 목록의 번호를 FILE_SHIFT 위에 담으므로, 압축 중에도 번호가 바뀌지 않아야 한다.
+    private final List<MappedRecordFile> files = new ArrayList<>();
+    // 새 로그로 갈아탄 뒤 아직 스냅샷에 들어가지 않은 로그의 인덱스. 최근 것이 앞에 있다.
+    private final Deque<LongPositionIndex> frozenIndexes = new ArrayDeque<>();
+    private MappedPositionIndex snapshotIndex;
+    private long snapshotGeneration = -1;
+    private LongPositionIndex logIndex;
+    private MappedRecordFile log;
+    private int logSlot;
+    private long generation;
+    private int size;
+    private CompletableFuture<Void> compaction;
+
+    public FileMemberRepository(Path directory) throws IOException {
+        this(directory, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * @param compactThreshold 로그가 이 크기를 넘으면 백그라운드에서 압축을 시작한다.
+     */
+    public FileMemberRepository(Path directory, long compactThreshold) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.compactThreshold = compactThreshold;
+        load();
+    }
+
+    @Override
+    public void save(Member member) {
+        byte[] name = member.getName() == null ? null : member.getName().getBytes(StandardCharsets.UTF_8);
+        if (name != null && name.length > MappedRecordFile.MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("name is too long: " + name.length + " bytes");
+        }
+        byte grade = member.getGrade() == null ? MappedRecordFile.NULL_GRADE : (byte) member.getGrade().ordinal();
+
+        lock.writeLock().lock();
+        try {
+            long position = log.append(member.getId(), grade, name);
+            put(member.getId(), encode(logSlot, position));
+            if (log.size() > compactThreshold && (compaction == null || compaction.isDone())) {
+                try {
+                    startCompaction();
+                } catch (UncheckedIOException e) {
+                    // 저장은 이미 끝났다. 로그가 더 커지면 다시 시도한다.
+                    logger.warn("failed to start compaction of {}", directory, e);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return findById(id.longValue());
+    }
+
+    @Override
+    public Member findById(long id) {
+        lock.readLock().lock();
+        try {
+            long position = positionOf(id);
+            if (position == LongPositionIndex.ABSENT) {
+                return null;
+            }
+            return files.get((int) (position >>> FILE_SHIFT)).read(position & POSITION_MASK);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<Long, Member> findAllById(Collection<Long> ids) {
+        Map<Long, Member> members = new HashMap<>(ids.size() * 4 / 3 + 1);
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                long position = positionOf(id);
+                if (position != LongPositionIndex.ABSENT) {
+                    members.put(id, files.get((int) (position >>> FILE_SHIFT)).read(position & POSITION_MASK));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return members;
+    }
+
+    /**
+     * 로그, 얼린 로그, 스냅샷 인덱스의 슬롯을 이어 붙인 범위를 나눠 훑는 스트림을 돌려준다. id 를 미리 복사하지 않고,
+     * 슬롯 SCAN_BATCH 개마다 읽기 잠금을 잡아 회원을 만들어 두었다가 잠금을 푼 뒤에 넘긴다.
+     * 같은 id 가 여러 인덱스에 있으면 가장 오래된 인덱스에서만 세고 값은 positionOf 가 가리키는 가장 새 위치에서 읽는다.
+     * 얼린 로그와 스냅샷의 인덱스는 더 바뀌지 않으므로, 훑는 도중에 다시 저장된 회원도 한 번만 나온다.
+     */
+    @Override
+    public Stream<Member> scan() {
+        lock.readLock().lock();
+        try {
+            List<LongPositionIndex> frozen = new ArrayList<>(frozenIndexes);
+            LongPositionIndex.Slots[] slots = new LongPositionIndex.Slots[frozen.size() + 1];
+            slots[0] = logIndex.slots();
+            for (int i = 0; i < frozen.size(); i++) {
+                slots[i + 1] = frozen.get(i).slots();
+            }
+            ScanSource source = new ScanSource(slots, frozen, snapshotIndex);
+            return StreamSupport.stream(new MemberSpliterator(source, 0, source.capacity()), false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 지금까지 쓴 레코드를 모두 새 스냅샷으로 압축하고 끝날 때까지 기다린다.
+     * 백그라운드 압축이 돌고 있으면 그것이 끝난 뒤 한 번 더 압축한다.
+     * 인덱스와 스냅샷을 임시 파일에 다 쓰고 force 한 다음 스냅샷 이름을 바꾸는 것으로 커밋하기 때문에,
+     * 도중에 죽어도 이전 세대와 로그로 복구된다.
+     */
+    public void compact() {
+        while (true) {
+            CompletableFuture<Void> running;
+            boolean started = false;
+            lock.writeLock().lock();
+            try {
+                if (compaction == null || compaction.isDone()) {
+                    startCompaction();
+                    started = true;
+                }
+                running = compaction;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                running.join();
+            } catch (CompletionException e) {
+                if (started) {
+                    throw e.getCause() instanceof UncheckedIOException
+                        ? (UncheckedIOException) e.getCause() : e;
+                }
+            }
+            if (started) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 로그에 쓴 내용을 디스크까지 내려보낸다. 프로세스가 죽는 것은 mmap 만으로도 버티지만 OS 장애에는 force 가 필요하다.
+     * 아직 스냅샷에 들어가지 않은 얼린 로그도 함께 내려보낸다.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            forceLogs();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 돌고 있는 압축이 끝나기를 기다린 뒤 파일을 닫는다.
+     */
+    @Override
+    public void close() throws IOException {
+        CompletableFuture<Void> running;
+        lock.writeLock().lock();
+        try {
+            running = compaction;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (running != null) {
+            running.handle((ignored, e) -> null).join();
+        }
+
+        lock.writeLock().lock();
+        try {
+            forceLogs();
+            for (MappedRecordFile file : files) {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 지금 로그를 얼리고 새 로그로 갈아탄 뒤, 얼린 로그와 스냅샷을 합치는 일을 백그라운드에 맡긴다. 쓰기 잠금 안에서 부른다.
+     */
+    private void startCompaction() {
+        long next = generation + 1;
+        MappedRecordFile nextLog;
+        try {
+            nextLog = MappedRecordFile.open(logPath(next));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to rotate log in " + directory, e);
+        }
+        frozenIndexes.addFirst(logIndex);
+        Compaction job = new Compaction(next, new ArrayList<>(files), snapshotIndex,
+            new ArrayList<>(frozenIndexes), size);
+
+        logSlot = 1;
+        while (logSlot < files.size() && files.get(logSlot) != null) {
+            logSlot++;
+        }
+        if (logSlot == files.size()) {
+            files.add(nextLog);
+        } else {
+            files.set(logSlot, nextLog);
+        }
+        log = nextLog;
+        logIndex = new LongPositionIndex(1 << 16);
+        generation = next;
+        compaction = CompletableFuture.runAsync(() -> compact(job), COMPACTOR);
+    }
+
+    /**
+     * 백그라운드에서 얼린 로그와 스냅샷의 살아 있는 레코드를 새 스냅샷으로 옮긴다. 얼린 파일과 인덱스는 더 바뀌지 않으므로 잠금 없이 읽는다.
+     * 스냅샷 이름을 바꾸면 디스크에는 커밋된 것이고, 메모리의 파일 목록은 잠깐 쓰기 잠금을 잡고 바꾼다.
+     */
+    private void compact(Compaction job) {
+        Path temporary = directory.resolve("members-" + job.generation + ".snapshot.tmp");
+        Path indexTemporary = directory.resolve("members-" + job.generation + ".index.tmp");
+        try {
+            MappedRecordFile snapshot = MappedRecordFile.open(temporary);
+            LongPositionIndex compacted = new LongPositionIndex(job.size);
+            for (LongPositionIndex frozen : job.frozenIndexes) {
+                frozen.forEach((id, position) -> {
+                    if (compacted.get(id) == LongPositionIndex.ABSENT) {
+                        compacted.put(id, snapshot.copyFrom(job.files.get((int) (position >>> FILE_SHIFT)),
+                            position & POSITION_MASK));
+                    }
+                });
+            }
+            if (job.snapshotIndex != null) {
+                job.snapshotIndex.forEach((id, position) -> {
+                    if (compacted.get(id) == LongPositionIndex.ABSENT) {
+                        compacted.put(id, snapshot.copyFrom(job.files.get(0), position));
+                    }
+                });
+            }
+
+            compacted.writeTo(indexTemporary);
+            Files.move(indexTemporary, indexPath(job.generation), StandardCopyOption.ATOMIC_MOVE);
+            snapshot.renameTo(snapshotPath(job.generation));
+            install(job, snapshot, MappedPositionIndex.open(indexPath(job.generation)));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("failed to compact {} into generation {}", directory, job.generation, e);
+            try {
+                Files.deleteIfExists(temporary);
+                Files.deleteIfExists(indexTemporary);
+            } catch (IOException ignored) {
+                // 다음 기동 때 load 가 임시 파일을 지운다.
+            }
+            throw e instanceof IOException
+                ? new UncheckedIOException("failed to compact " + directory, (IOException) e) : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * 새 스냅샷을 0 번 자리에 넣고, 스냅샷에 들어간 파일과 얼린 인덱스를 버린다.
+     */
+    private void install(Compaction job, MappedRecordFile snapshot, MappedPositionIndex index) throws IOException {
+        long previousSnapshot;
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < job.files.size(); slot++) {
+                MappedRecordFile file = job.files.get(slot);
+                if (file != null) {
+                    file.close();
+                    files.set(slot, null);
+                }
+            }
+            files.set(0, snapshot);
+            snapshotIndex = index;
+            frozenIndexes.removeAll(job.frozenIndexes);
+            previousSnapshot = snapshotGeneration;
+            snapshotGeneration = job.generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (MappedRecordFile file : job.files) {
+            if (file != null) {
+                Files.deleteIfExists(file.path());
+            }
+        }
+        if (previousSnapshot >= 0) {
+            Files.deleteIfExists(indexPath(previousSnapshot));
+        }
+    }
+
+    private void forceLogs() {
+        for (int slot = 1; slot < files.size(); slot++) {
+            if (files.get(slot) != null) {
+                files.get(slot).force();
+            }
+        }
+    }
+
+    private long positionOf(long id) {
+        long position = logIndex.get(id);
+        if (position != LongPositionIndex.ABSENT) {
+            return position;
+        }
+        for (LongPositionIndex frozen : frozenIndexes) {
+            position = frozen.get(id);
+            if (position != LongPositionIndex.ABSENT) {
+                return position;
+            }
+        }
+        return snapshotIndex == null ? LongPositionIndex.ABSENT : snapshotIndex.get(id);
+    }
+
+    private void put(long id, long position) {
+        if (positionOf(id) == LongPositionIndex.ABSENT) {
+            size++;
+        }
+        logIndex.put(id, position);
+    }
+
+    private void load() throws IOException {
+        List<Long> snapshotGenerations = new ArrayList<>();
+        List<Long> logGenerations = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String fileName = path.getFileName().toString();
+                if (fileName.endsWith(".tmp")) {
+                    Files.delete(path);
+                    continue;
+                }
+                Matcher matcher = FILE_NAME.matcher(fileName);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                long fileGeneration = Long.parseLong(matcher.group(1));
+                if (matcher.group(2).equals("snapshot")) {
+                    snapshotGenerations.add(fileGeneration);
+                } else if (matcher.group(2).equals("log")) {
+                    logGenerations.add(fileGeneration);
+                }
+            }
+        }
+
+        // 새 스냅샷이 만들어진 뒤 이전 세대를 지우기 전에 죽었다면 남은 파일은 모두 스냅샷에 들어 있다.
+        snapshotGenerations.sort(null);
+        logGenerations.sort(null);
+        long latestSnapshot = snapshotGenerations.isEmpty()
+            ? -1 : snapshotGenerations.get(snapshotGenerations.size() - 1);
+        for (long stale : snapshotGenerations) {
+            if (stale < latestSnapshot) {
+                Files.delete(snapshotPath(stale));
+                Files.deleteIfExists(indexPath(stale));
+            }
+        }
+        // 0 번 자리는 스냅샷 몫이다. 스냅샷 레코드의 위치에는 파일 번호가 들어 있지 않다.
+        files.add(latestSnapshot >= 0 ? MappedRecordFile.open(snapshotPath(latestSnapshot)) : null);
+        generation = Math.max(latestSnapshot, 0);
+        for (long logGeneration : logGenerations) {
+            if (logGeneration < latestSnapshot) {
+                Files.delete(logPath(logGeneration));
+                continue;
+            }
+            files.add(MappedRecordFile.open(logPath(logGeneration)));
+            generation = logGeneration;
+        }
+        if (files.size() == 1 || !files.get(files.size() - 1).path().equals(logPath(generation))) {
+            files.add(MappedRecordFile.open(logPath(generation)));
+        }
+        logSlot = files.size() - 1;
+        log = files.get(logSlot);
+
+        if (latestSnapshot >= 0) {
+            // 스냅샷은 force 한 뒤 이름을 바꿨으므로 훑어서 검증할 필요가 없다.
+            snapshotIndex = MappedPositionIndex.open(indexPath(latestSnapshot));
+            size = snapshotIndex.size();
+            snapshotGeneration = latestSnapshot;
+        }
+
+        // 로그 인덱스를 처음부터 충분히 크게 잡아 두면 기동 중에 rehash 가 일어나지 않는다.
+        int expectedSize = 0;
+        for (int i = 1; i < files.size(); i++) {
+            expectedSize += files.get(i).estimateRecords();
+        }
+        logIndex = new LongPositionIndex(Math.max(expectedSize, 1 << 16));
+        for (int i = 1; i < files.size(); i++) {
+            int fileIndex = i;
+            files.get(i).recover((id, position) -> put(id, encode(fileIndex, position)));
+        }
+    }
+
+    private Path snapshotPath(long generation) {
+        return directory.resolve("members-" + generation + ".snapshot");
+    }
+
+    private Path indexPath(long generation) {
+        return directory.resolve("members-" + generation + ".index");
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve("members-" + generation + ".log");
+    }
+
+    private static long encode(int fileIndex, long position) {
+        return ((long) fileIndex << FILE_SHIFT) | position;
+    }
+
+    /**
+     * 새 로그로 갈아탈 때 얼린 상태. files 의 번호는 갈아타기 전 그대로다.
+     */
+    private static final class Compaction {
+
+        final long generation;
+        final List<MappedRecordFile> files;
+        final MappedPositionIndex snapshotIndex;
+        final List<LongPositionIndex> frozenIndexes;
+        final int size;
+
+        Compaction(long generation, List<MappedRecordFile> files, MappedPositionIndex snapshotIndex,
+            List<LongPositionIndex> frozenIndexes, int size) {
+            this.generation = generation;
+            this.files = files;
+            this.snapshotIndex = snapshotIndex;
+            this.frozenIndexes = frozenIndexes;
+            this.size = size;
+        }
+    }
+
+    /**
+     * scan 을 시작할 때의 인덱스들. 슬롯 번호는 로그, 얼린 로그(최근 것부터), 스냅샷 순으로 이어 붙인다.
+     * 로그 인덱스만 계속 바뀌고 나머지는 바뀌지 않는다.
+     */
+    private static final class ScanSource {
+
+        final LongPositionIndex.Slots[] slots;
+        final List<LongPositionIndex> frozen;
+        final MappedPositionIndex snapshot;
+        final int[] ends;
+
+        ScanSource(LongPositionIndex.Slots[] slots, List<LongPositionIndex> frozen, MappedPositionIndex snapshot) {
+            this.slots = slots;
+            this.frozen = frozen;
+            this.snapshot = snapshot;
+            ends = new int[slots.length + (snapshot == null ? 0 : 1)];
+            int end = 0;
+            for (int i = 0; i < ends.length; i++) {
+                end += i < slots.length ? slots[i].capacity() : snapshot.capacity();
+                ends[i] = end;
+            }
+        }
+
+        int capacity() {
+            return ends[ends.length - 1];
+        }
+
+        /**
+         * [from, to) 슬롯 중 가장 오래된 인덱스에 있는 id 만 방문한다. to 는 from 과 같은 인덱스 안이어야 한다.
+         */
+        void forEach(int from, int to, LongPositionIndex.Visitor visitor) {
+            int source = sourceOf(from);
+            int start = source == 0 ? 0 : ends[source - 1];
+            LongPositionIndex.Visitor oldest = (id, position) -> {
+                if (!inOlder(source, id)) {
+                    visitor.visit(id, position);
+                }
+            };
+            if (source < slots.length) {
+                slots[source].forEach(from - start, to - start, oldest);
+            } else {
+                snapshot.forEach(from - start, to - start, oldest);
+            }
+        }
+
+        int endOf(int slot) {
+            return ends[sourceOf(slot)];
+        }
+
+        private int sourceOf(int slot) {
+            int source = 0;
+            while (ends[source] <= slot) {
+                source++;
+            }
+            return source;
+        }
+
+        private boolean inOlder(int source, long id) {
+            for (int i = source; i < frozen.size(); i++) {
+                if (frozen.get(i).get(id) != LongPositionIndex.ABSENT) {
+                    return true;
+                }
+            }
+            return source < slots.length && snapshot != null && snapshot.get(id) != LongPositionIndex.ABSENT;
+        }
+    }
+
+    /**
+     * 슬롯 범위 [slot, fence) 를 SCAN_BATCH 개씩 읽는다. 나눌 때는 남은 범위를 반씩 나눈다.
+     */
+    private final class MemberSpliterator implements Spliterator<Member> {
+
+        private final ScanSource source;
+        private final int fence;
+        private final List<Member> batch = new ArrayList<>();
+        private int slot;
+        private int next;
+
+        MemberSpliterator(ScanSource source, int slot, int fence) {
+            this.source = source;
+            this.slot = slot;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Member> action) {
+            if (next == batch.size() && !fill()) {
+                return false;
+            }
+            action.accept(batch.get(next++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Member> action) {
+            do {
+                while (next < batch.size()) {
+                    action.accept(batch.get(next++));
+                }
+            } while (fill());
+        }
+
+        @Override
+        public Spliterator<Member> trySplit() {
+            int mid = (slot + fence) >>> 1;
+            if (next < batch.size() || mid - slot < SCAN_BATCH) {
+                return null;
+            }
+            MemberSpliterator prefix = new MemberSpliterator(source, slot, mid);
+            slot = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - slot + batch.size() - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL | CONCURRENT;
+        }
+
+        /**
+         * 회원이 하나라도 담긴 다음 묶음을 읽는다. 남은 슬롯이 없으면 false.
+         */
+        private boolean fill() {
+            batch.clear();
+            next = 0;
+            while (batch.isEmpty() && slot < fence) {
+                int to = Math.min(Math.min(fence, slot + SCAN_BATCH), source.endOf(slot));
+                lock.readLock().lock();
+                try {
+                    source.forEach(slot, to, (id, ignored) -> {
+                        long position = positionOf(id);
+                        if (position != LongPositionIndex.ABSENT) {
+                            batch.add(files.get((int) (position >>> FILE_SHIFT)).read(position & POSITION_MASK));
+                        }
+                    });
+                } finally {
+                    lock.readLock().unlock();
+                }
+                slot = to;
+            }
+            return !batch.isEmpty();
+        }
+    }
+}
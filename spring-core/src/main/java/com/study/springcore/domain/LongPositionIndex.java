@@ -0,0 +1,169 @@
+package com.study.springcore.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 회원 id -> 레코드 위치를 담는 open addressing 해시 인덱스.
+ * 키와 값을 long 배열에 그대로 담기 때문에 엔트리마다 객체가 생기지 않는다.
+ * 스레드 안전하지 않으므로 사용하는 쪽에서 동기화해야 한다.
+ */
+final class LongPositionIndex {
+
+    static final long ABSENT = -1;
+
+    private static final float LOAD_FACTOR = 0.7f;
+
+    // 스냅샷은 다른 인덱스의 슬롯 순서대로 쓰인다. 같은 해시로 그 순서대로 다시 넣으면
+    // 선형 탐사 클러스터가 한없이 길어지므로 인덱스마다 다른 시드를 섞는다.
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    private long[] keys;
+    private long[] positions; // 레코드 위치 + 1. 0 이면 빈 슬롯이다.
+    private int size;
+
+    LongPositionIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        positions = new long[capacity];
+    }
+
+    long get(long id) {
+        return positions[slotOf(id)] - 1;
+    }
+
+    void put(long id, long position) {
+        int slot = slotOf(id);
+        if (positions[slot] == 0) {
+            keys[slot] = id;
+            size++;
+        }
+        positions[slot] = position + 1;
+        if (size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 해시 테이블을 그대로 파일에 쓴다. MappedPositionIndex 가 이 파일을 mmap 해서 다시 만들지 않고 조회한다.
+     * 형식은 [seed | capacity | size] 헤더 뒤에 슬롯마다 (id, 위치 + 1) 쌍이 이어진다.
+     */
+    void writeTo(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            buffer.putLong(seed).putLong(keys.length).putLong(size);
+            buffer.position(MappedPositionIndex.HEADER_SIZE);
+            for (int i = 0; i < keys.length; i++) {
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(keys[i]).putLong(positions[i]);
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * 저장된 모든 (id, 위치) 쌍을 순서 없이 방문한다.
+     */
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (positions[i] != 0) {
+                visitor.visit(keys[i], positions[i] - 1);
+            }
+        }
+    }
+
+    /**
+     * 지금 슬롯 배열을 붙잡아 슬롯 범위로 나눠 훑게 한다. rehash 는 새 배열을 만들 뿐 붙잡은 배열은 건드리지 않으므로,
+     * 붙잡을 때 있던 id 는 인덱스가 커진 뒤에도 그 안에 한 번씩 남는다. 다만 그 뒤의 위치는 get 으로 다시 찾아야 한다.
+     */
+    Slots slots() {
+        return new Slots(keys, positions);
+    }
+
+    private int slotOf(long id) {
+        int mask = keys.length - 1;
+        int slot = mix(id, seed) & mask;
+        while (positions[slot] != 0 && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldPositions = positions;
+        keys = new long[capacity];
+        positions = new long[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPositions[i] != 0) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+
+    /**
+     * MurmurHash3 의 fmix64. 연속된 id 도 슬롯 전체에 고르게 흩어야 선형 탐사가 길어지지 않는다.
+     */
+    static int mix(long id, long seed) {
+        long h = id ^ seed;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * slots() 가 붙잡은 슬롯 배열. 인덱스와 같은 잠금 안에서 읽는다.
+     */
+    static final class Slots {
+
+        private final long[] keys;
+        private final long[] positions;
+
+        private Slots(long[] keys, long[] positions) {
+            this.keys = keys;
+            this.positions = positions;
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        /**
+         * [from, to) 슬롯의 (id, 위치) 쌍을 방문한다. 인덱스가 그 뒤에 커졌으면 위치는 옛 값이다.
+         */
+        void forEach(int from, int to, Visitor visitor) {
+            for (int i = from; i < to; i++) {
+                if (positions[i] != 0) {
+                    visitor.visit(keys[i], positions[i] - 1);
+                }
+            }
+        }
+    }
+
+    interface Visitor {
+
+        void visit(long id, long position);
+    }
+}
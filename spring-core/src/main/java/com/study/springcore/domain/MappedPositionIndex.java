@@ -0,0 +1,94 @@
+package com.study.springcore.domain;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * LongPositionIndex.writeTo 로 쓴 해시 테이블을 mmap 해서 읽기 전용으로 조회한다.
+ * 기동할 때 테이블을 다시 만들지 않으므로 스냅샷 크기와 상관없이 여는 비용이 일정하다.
+ */
+final class MappedPositionIndex {
+
+    static final int HEADER_SIZE = 64;
+
+    private static final int CHUNK_SHIFT = MappedRecordFile.CHUNK_SHIFT;
+    private static final int CHUNK_SIZE = MappedRecordFile.CHUNK_SIZE;
+    private static final int SLOT_SIZE = Long.BYTES * 2;
+
+    private final MappedByteBuffer[] chunks;
+    private final long seed;
+    private final int capacity;
+    private final int size;
+
+    private MappedPositionIndex(MappedByteBuffer[] chunks) {
+        this.chunks = chunks;
+        this.seed = chunks[0].getLong(0);
+        this.capacity = (int) chunks[0].getLong(Long.BYTES);
+        this.size = (int) chunks[0].getLong(Long.BYTES * 2);
+    }
+
+    static MappedPositionIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long offset = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(MapMode.READ_ONLY, offset, Math.min(CHUNK_SIZE, length - offset));
+            }
+            MappedPositionIndex index = new MappedPositionIndex(chunks);
+            if (length != HEADER_SIZE + (long) index.capacity * SLOT_SIZE) {
+                throw new IOException("corrupted index " + path);
+            }
+            return index;
+        }
+    }
+
+    long get(long id) {
+        int mask = capacity - 1;
+        int slot = LongPositionIndex.mix(id, seed) & mask;
+        while (true) {
+            long offset = HEADER_SIZE + (long) slot * SLOT_SIZE;
+            MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+            int at = (int) (offset & (CHUNK_SIZE - 1));
+            long position = chunk.getLong(at + Long.BYTES);
+            if (position == 0) {
+                return LongPositionIndex.ABSENT;
+            }
+            if (chunk.getLong(at) == id) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void forEach(LongPositionIndex.Visitor visitor) {
+        forEach(0, capacity, visitor);
+    }
+
+    /**
+     * [from, to) 슬롯의 (id, 위치) 쌍을 방문한다.
+     */
+    void forEach(int from, int to, LongPositionIndex.Visitor visitor) {
+        for (int slot = from; slot < to; slot++) {
+            long offset = HEADER_SIZE + (long) slot * SLOT_SIZE;
+            MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+            int at = (int) (offset & (CHUNK_SIZE - 1));
+            long position = chunk.getLong(at + Long.BYTES);
+            if (position != 0) {
+                visitor.visit(chunk.getLong(at), position - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.study.springcore.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 회원 레코드를 64MB 단위로 mmap 한 파일에 이어 쓰는 로그.
+ * 레코드는 [payload 길이(4) | CRC32(4) | id(8) | grade ordinal(1) | name 길이(2) | UTF-8 name] 형식이고,
+ * grade 가 없으면 ordinal 자리에 NULL_GRADE 를 쓴다.
+ * 청크 경계를 넘지 않는다. 길이가 0 이면 그 청크에는 더 이상 레코드가 없다는 뜻이다.
+ */
+final class MappedRecordFile implements Closeable {
+
+    static final int CHUNK_SHIFT = 26;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 64MB
+
+    private static final int RECORD_HEADER = Integer.BYTES + Integer.BYTES;
+    private static final int PAYLOAD_HEADER = Long.BYTES + Byte.BYTES + Short.BYTES;
+    private static final int NULL_NAME = 0xFFFF;
+    static final int MAX_NAME_BYTES = NULL_NAME - 1;
+    static final byte NULL_GRADE = -1;
+    private static final Grade[] GRADES = Grade.values();
+
+    private Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+
+    private long writePosition;
+
+    private MappedRecordFile(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        long chunkCount = (channel.size() + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.add(channel.map(MapMode.READ_WRITE, (long) i << CHUNK_SHIFT, CHUNK_SIZE));
+        }
+    }
+
+    static MappedRecordFile open(Path path) throws IOException {
+        return new MappedRecordFile(path, FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * 다 쓴 파일을 원자적으로 이름을 바꾼다. 매핑은 그대로 유지된다.
+     */
+    void renameTo(Path target) throws IOException {
+        force();
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+        path = target;
+    }
+
+    /**
+     * 파일 처음부터 유효한 레코드를 차례로 방문하고, 마지막 유효 레코드 뒤를 다음 쓰기 위치로 잡는다.
+     * 길이가 청크를 넘거나 CRC 가 맞지 않는 레코드(쓰다 만 레코드)를 만나면 거기서 멈추고 그 뒤를 0 으로 지운다.
+     * 0 이 아닌 바이트만 다시 쓰기 때문에 정상 종료된 파일은 건드리지 않는다.
+     */
+    void recover(LongPositionIndex.Visitor visitor) {
+        long position = 0;
+        int chunkIndex;
+        while ((chunkIndex = (int) (position >>> CHUNK_SHIFT)) < chunks.size()) {
+            MappedByteBuffer chunk = chunks.get(chunkIndex);
+            int offset = (int) (position & (CHUNK_SIZE - 1));
+            int length = offset + RECORD_HEADER <= CHUNK_SIZE ? chunk.getInt(offset) : 0;
+            if (length == 0) {
+                if (offset == 0 || !nextChunkStartsWithRecord(chunkIndex)) {
+                    break;
+                }
+                position = (long) (chunkIndex + 1) << CHUNK_SHIFT;
+                continue;
+            }
+            if (!isValid(chunk, offset, length)) {
+                break;
+            }
+            visitor.visit(chunk.getLong(offset + RECORD_HEADER), position);
+            position += RECORD_HEADER + length;
+        }
+        writePosition = position;
+
+        // OS 가 죽으면 페이지가 순서대로 디스크에 내려간다는 보장이 없다.
+        // 복구 지점 뒤에 남은 레코드 조각이 나중에 되살아나지 않도록 지워 둔다.
+        for (int i = chunkIndex; i < chunks.size(); i++) {
+            zeroFrom(chunks.get(i), i == chunkIndex ? (int) (position & (CHUNK_SIZE - 1)) : 0);
+        }
+    }
+
+    /**
+     * 인덱스 크기를 미리 잡기 위해 레코드 수를 어림한다. 길이 헤더만 따라가고 CRC 는 확인하지 않는다.
+     */
+    int estimateRecords() {
+        int count = 0;
+        for (MappedByteBuffer chunk : chunks) {
+            int offset = 0;
+            while (offset + RECORD_HEADER <= CHUNK_SIZE) {
+                int length = chunk.getInt(offset);
+                if (length < PAYLOAD_HEADER || offset + RECORD_HEADER + length > CHUNK_SIZE) {
+                    break;
+                }
+                count++;
+                offset += RECORD_HEADER + length;
+            }
+        }
+        return count;
+    }
+
+    long append(long id, byte grade, byte[] name) {
+        int nameLength = name == null ? 0 : name.length;
+        int payloadLength = PAYLOAD_HEADER + nameLength;
+        int recordLength = RECORD_HEADER + payloadLength;
+        int offset = reserve(recordLength);
+
+        MappedByteBuffer chunk = chunks.get((int) (writePosition >>> CHUNK_SHIFT));
+        int payload = offset + RECORD_HEADER;
+        chunk.putLong(payload, id);
+        chunk.put(payload + Long.BYTES, grade);
+        chunk.putShort(payload + Long.BYTES + Byte.BYTES, (short) (name == null ? NULL_NAME : nameLength));
+        if (name != null) {
+            chunk.duplicate().position(payload + PAYLOAD_HEADER).put(name);
+        }
+        chunk.putInt(offset + Integer.BYTES, checksum(chunk, payload, payloadLength));
+        // 길이를 마지막에 기록해야 중간에 죽었을 때 반쯤 쓴 레코드가 유효해 보이지 않는다.
+        chunk.putInt(offset, payloadLength);
+
+        long position = writePosition;
+        writePosition += recordLength;
+        return position;
+    }
+
+    Member read(long position) {
+        MappedByteBuffer chunk = chunks.get((int) (position >>> CHUNK_SHIFT));
+        int payload = (int) (position & (CHUNK_SIZE - 1)) + RECORD_HEADER;
+        long id = chunk.getLong(payload);
+        byte ordinal = chunk.get(payload + Long.BYTES);
+        Grade grade = ordinal == NULL_GRADE ? null : GRADES[ordinal];
+        int nameLength = Short.toUnsignedInt(chunk.getShort(payload + Long.BYTES + Byte.BYTES));
+        if (nameLength == NULL_NAME) {
+            return new Member(id, null, grade);
+        }
+        byte[] name = new byte[nameLength];
+        chunk.duplicate().position(payload + PAYLOAD_HEADER).get(name);
+        return new Member(id, new String(name, StandardCharsets.UTF_8), grade);
+    }
+
+    /**
+     * 다른 파일의 레코드를 바이트 그대로 옮겨 적는다. 스냅샷을 만들 때 쓴다.
+     */
+    long copyFrom(MappedRecordFile source, long position) {
+        MappedByteBuffer from = source.chunks.get((int) (position >>> CHUNK_SHIFT));
+        int fromOffset = (int) (position & (CHUNK_SIZE - 1));
+        int recordLength = RECORD_HEADER + from.getInt(fromOffset);
+
+        int offset = reserve(recordLength);
+        MappedByteBuffer chunk = chunks.get((int) (writePosition >>> CHUNK_SHIFT));
+        chunk.duplicate().position(offset)
+            .put(from.duplicate().position(fromOffset).limit(fromOffset + recordLength));
+
+        long copied = writePosition;
+        writePosition += recordLength;
+        return copied;
+    }
+
+    long size() {
+        return writePosition;
+    }
+
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 레코드가 청크 경계를 넘지 않도록 필요하면 다음 청크로 쓰기 위치를 옮기고, 청크 안의 오프셋을 돌려준다.
+     */
+    private int reserve(int recordLength) {
+        int offset = (int) (writePosition & (CHUNK_SIZE - 1));
+        int chunkIndex = (int) (writePosition >>> CHUNK_SHIFT);
+        if (chunkIndex < chunks.size() && offset + recordLength <= CHUNK_SIZE) {
+            return offset;
+        }
+        if (chunkIndex < chunks.size()) {
+            chunkIndex++;
+        }
+        ensureChunk(chunkIndex);
+        writePosition = (long) chunkIndex << CHUNK_SHIFT;
+        return 0;
+    }
+
+    private boolean nextChunkStartsWithRecord(int chunkIndex) {
+        if (chunkIndex + 1 >= chunks.size()) {
+            return false;
+        }
+        MappedByteBuffer next = chunks.get(chunkIndex + 1);
+        int length = next.getInt(0);
+        return length != 0 && isValid(next, 0, length);
+    }
+
+    private boolean isValid(MappedByteBuffer chunk, int offset, int length) {
+        if (length < PAYLOAD_HEADER || offset + RECORD_HEADER + length > CHUNK_SIZE) {
+            return false;
+        }
+        int payload = offset + RECORD_HEADER;
+        int nameLength = Short.toUnsignedInt(chunk.getShort(payload + Long.BYTES + Byte.BYTES));
+        int expected = PAYLOAD_HEADER + (nameLength == NULL_NAME ? 0 : nameLength);
+        return length == expected
+            && isGrade(chunk.get(payload + Long.BYTES))
+            && chunk.getInt(offset + Integer.BYTES) == checksum(chunk, payload, length);
+    }
+
+    private static boolean isGrade(byte ordinal) {
+        return ordinal == NULL_GRADE || (ordinal >= 0 && ordinal < GRADES.length);
+    }
+
+    private int checksum(MappedByteBuffer chunk, int payload, int length) {
+        crc.reset();
+        crc.update(chunk.duplicate().position(payload).limit(payload + length));
+        return (int) crc.getValue();
+    }
+
+    private void ensureChunk(int chunkIndex) {
+        try {
+            while (chunks.size() <= chunkIndex) {
+                chunks.add(channel.map(MapMode.READ_WRITE, (long) chunks.size() << CHUNK_SHIFT, CHUNK_SIZE));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to extend " + path, e);
+        }
+    }
+
+    private static void zeroFrom(MappedByteBuffer chunk, int offset) {
+        int i = offset;
+        for (; i < CHUNK_SIZE && (i & (Long.BYTES - 1)) != 0; i++) {
+            if (chunk.get(i) != 0) {
+                chunk.put(i, (byte) 0);
+            }
+        }
+        for (; i < CHUNK_SIZE; i += Long.BYTES) {
+            if (chunk.getLong(i) != 0L) {
+                chunk.putLong(i, 0L);
+            }
+        }
+    }
+}
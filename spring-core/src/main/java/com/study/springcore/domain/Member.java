@@ -16,6 +16,10 @@ public class Member {
         return this.id;
     }
 
+    public String getName() {
+        return this.name;
+    }
+
     public Grade getGrade() {
         return this.grade;
     }
@@ -1,9 +1,61 @@
 package com.study.springcore.domain;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
 public interface MemberRepository {
 
     void save(Member member);
 
     Member findById(Long id);
 
+    /**
+     * 박싱 없이 조회한다. 주문을 대량으로 가격 매기는 경로처럼 id 를 long 으로 들고 있는 곳에서 쓴다.
+     * 기본 구현은 박싱해서 findById(Long) 에 넘기므로, 원시 키로 찾을 수 있는 저장소는 재정의한다.
+     */
+    default Member findById(long id) {
+        return findById(Long.valueOf(id));
+    }
+
+    /**
+     * 여러 회원을 한 번에 저장한다. 같은 id 가 여러 번 있으면 뒤의 회원이 남는다.
+     * 저장소는 잠금이나 쓰기 준비를 묶음마다 한 번만 하도록 바꿔 구현할 수 있다.
+     */
+    default void saveAll(List<Member> members) {
+        for (Member member : members) {
+            save(member);
+        }
+    }
+
+    /**
+     * 여러 회원을 한 번에 조회한다. 없는 id 는 결과에 담기지 않는다.
+     */
+    default Map<Long, Member> findAllById(Collection<Long> ids) {
+        Map<Long, Member> members = new HashMap<>(ids.size() * 4 / 3 + 1);
+        for (Long id : ids) {
+            Member member = findById(id);
+            if (member != null) {
+                members.put(id, member);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * 저장된 모든 회원을 훑는 스트림. parallel() 로 돌려도 저장소를 목록으로 복사하지 않아야 한다.
+     * 훑는 동안의 저장은 보일 수도 안 보일 수도 있지만, 그 전에 저장된 회원은 한 번씩 나온다.
+     */
+    Stream<Member> scan();
+
+    /**
+     * grade 등급인 회원만 훑는 스트림. 등급 인덱스가 없는 저장소는 scan 을 걸러서 돌려준다.
+     * grade 가 null 이면 등급이 없는 회원을 돌려준다. 재정의하는 저장소도 이 동작을 따른다.
+     */
+    default Stream<Member> findByGrade(Grade grade) {
+        return scan().filter(member -> member.getGrade() == grade);
+    }
+
 }
@@ -2,6 +2,7 @@ package com.study.springcore.domain;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -18,4 +19,9 @@ public class MemoryMemberRepository implements MemberRepository{
     public Member findById(Long id) {
         return store.get(id);
     }
+
+    @Override
+    public Stream<Member> scan() {
+        return store.values().stream();
+    }
 }
@@ -0,0 +1,408 @@
+package com.study.springcore.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 수천만 명의 회원을 힙 밖에 보관하는 저장소.
+ * 회원 한 명은 [id(8) | grade ordinal(1) | name 길이(2) | UTF-8 name] 레코드로 direct buffer 에 기록되고,
+ * id -> 레코드 위치는 LongPositionIndex 가 관리한다. grade 가 없으면 ordinal 자리에 NULL_GRADE 를 쓴다.
+ * Member 객체는 findById 를 호출할 때만 만들어진다.
+ *
+ * 같은 id 를 다시 저장할 때 새 레코드가 이전 레코드 자리에 들어가면 그 자리에 덮어쓴다. 들어가지 않으면 끝에 덧붙이고
+ * 이전 레코드는 청크의 죽은 바이트로 센다. 다 쓴 청크의 죽은 바이트가 절반을 넘으면 살아 있는 레코드만 활성 청크로 옮기고
+ * 그 청크를 비워 다시 쓴다. 그래서 갱신이 많아도 direct memory 는 살아 있는 레코드의 두 배쯤에서 멈춘다.
+ *
+ * 옮기는 일은 한 번에 하지 않고 쓰기마다 조금씩 한다. 저장할 때마다 쓴 바이트의 COMPACT_RATE 배만큼 압축 중인 청크의
+ * 레코드를 훑으므로, 저장 한 번이 청크 전체를 옮기느라 멈추지 않으면서도 압축이 쓰기보다 뒤처지지 않는다.
+ * 청크마다 레코드를 덧붙인 오프셋을 힙에 int 로 적어 두고 이것만 훑으므로 인덱스 전체를 돌지 않는다.
+ */
+public class OffHeapMemberRepository implements MemberRepository {
+
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 64MB
+    private static final int COMPACT_THRESHOLD = CHUNK_SIZE / 2;
+    private static final int COMPACT_RATE = 2;
+    private static final int SCAN_BATCH = 4096;
+    private static final int HEADER_SIZE = Long.BYTES + Byte.BYTES + Short.BYTES;
+    private static final byte NULL_GRADE = -1;
+    private static final int NULL_NAME = 0xFFFF;
+    private static final int MAX_NAME_BYTES = NULL_NAME - 1;
+    private static final Grade[] GRADES = Grade.values();
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final Deque<Integer> freeChunks = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongPositionIndex index;
+
+    private int[] deadBytes = new int[0];
+    // 청크마다 레코드를 덧붙인 오프셋. 덮어써서 죽은 레코드의 오프셋도 남아 있고, 청크를 비울 때 함께 비운다.
+    private int[][] recordOffsets = new int[0][];
+    private int[] recordCounts = new int[0];
+    private int activeChunk = -1;
+    private int activeOffset;
+    private boolean compactionDue;
+    private int compactingChunk = -1;
+    private int compactCursor;
+
+    public OffHeapMemberRepository() {
+        this(1 << 16);
+    }
+
+    public OffHeapMemberRepository(int expectedSize) {
+        index = new LongPositionIndex(expectedSize);
+    }
+
+    @Override
+    public void save(Member member) {
+        byte[] name = encodeName(member);
+
+        lock.writeLock().lock();
+        try {
+            compactDeadChunks((long) put(member.getId(), gradeOf(member), name) * COMPACT_RATE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 쓰기 잠금을 묶음마다 한 번만 잡는다.
+     */
+    @Override
+    public void saveAll(List<Member> members) {
+        byte[][] names = new byte[members.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = encodeName(members.get(i));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < names.length; i++) {
+                Member member = members.get(i);
+                compactDeadChunks((long) put(member.getId(), gradeOf(member), names[i]) * COMPACT_RATE);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return findById(id.longValue());
+    }
+
+    @Override
+    public Member findById(long id) {
+        lock.readLock().lock();
+        try {
+            long position = index.get(id);
+            return position == LongPositionIndex.ABSENT ? null : read(position);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<Long, Member> findAllById(Collection<Long> ids) {
+        Map<Long, Member> members = new HashMap<>(ids.size() * 4 / 3 + 1);
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                long position = index.get(id);
+                if (position != LongPositionIndex.ABSENT) {
+                    members.put(id, read(position));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return members;
+    }
+
+    /**
+     * 인덱스의 슬롯 범위를 나눠 훑는 스트림을 돌려준다. id 를 미리 복사하지 않고, 슬롯 SCAN_BATCH 개마다 읽기 잠금을 잡아
+     * 회원을 만들어 두었다가 잠금을 푼 뒤에 넘긴다. 스트림을 만든 뒤에 새로 저장된 회원은 보이지 않을 수 있고,
+     * 그 전에 있던 회원은 훑을 때의 값으로 한 번씩 나온다.
+     */
+    @Override
+    public Stream<Member> scan() {
+        lock.readLock().lock();
+        try {
+            LongPositionIndex.Slots slots = index.slots();
+            return StreamSupport.stream(new MemberSpliterator(slots, 0, slots.capacity()), false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 레코드 영역이 점유한 direct memory 크기. 비워 둔 청크도 다시 쓰려고 잡아 두므로 포함한다.
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) chunks.size() * CHUNK_SIZE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static byte[] encodeName(Member member) {
+        byte[] name = member.getName() == null ? null : member.getName().getBytes(StandardCharsets.UTF_8);
+        if (name != null && name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("name is too long: " + name.length + " bytes");
+        }
+        return name;
+    }
+
+    private static byte gradeOf(Member member) {
+        return member.getGrade() == null ? NULL_GRADE : (byte) member.getGrade().ordinal();
+    }
+
+    /**
+     * @return 기록한 레코드 크기
+     */
+    private int put(long id, byte grade, byte[] name) {
+        int recordSize = HEADER_SIZE + (name == null ? 0 : name.length);
+        long old = index.get(id);
+        if (old != LongPositionIndex.ABSENT) {
+            int oldSize = recordSize(old);
+            if (recordSize <= oldSize) {
+                write(old, id, grade, name);
+                markDead(chunkOf(old), oldSize - recordSize);
+                return recordSize;
+            }
+            markDead(chunkOf(old), oldSize);
+        }
+        long position = reserve(recordSize);
+        write(position, id, grade, name);
+        index.put(id, position);
+        return recordSize;
+    }
+
+    /**
+     * 활성 청크에 recordSize 바이트를 잡는다. 레코드가 두 청크에 걸치지 않도록 모자라면 새 청크에서 시작한다.
+     */
+    private long reserve(int recordSize) {
+        if (activeChunk == -1 || activeOffset + recordSize > CHUNK_SIZE) {
+            int sealed = activeChunk;
+            activeChunk = freeChunks.isEmpty() ? allocateChunk() : freeChunks.pop();
+            activeOffset = 0;
+            if (sealed != -1 && deadBytes[sealed] >= COMPACT_THRESHOLD) {
+                compactionDue = true;
+            }
+        }
+        long position = ((long) activeChunk << CHUNK_SHIFT) | activeOffset;
+        int[] offsets = recordOffsets[activeChunk];
+        if (recordCounts[activeChunk] == offsets.length) {
+            offsets = recordOffsets[activeChunk] = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[recordCounts[activeChunk]++] = activeOffset;
+        activeOffset += recordSize;
+        return position;
+    }
+
+    private int allocateChunk() {
+        chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+        deadBytes = Arrays.copyOf(deadBytes, chunks.size());
+        recordOffsets = Arrays.copyOf(recordOffsets, chunks.size());
+        recordOffsets[chunks.size() - 1] = new int[1024];
+        recordCounts = Arrays.copyOf(recordCounts, chunks.size());
+        return chunks.size() - 1;
+    }
+
+    private void markDead(int chunk, int bytes) {
+        deadBytes[chunk] += bytes;
+        if (chunk != activeChunk && deadBytes[chunk] >= COMPACT_THRESHOLD) {
+            compactionDue = true;
+        }
+    }
+
+    /**
+     * 압축 중인 청크의 레코드를 budget 바이트만큼 훑으며 살아 있는 것을 활성 청크로 옮긴다.
+     * 청크를 다 훑으면 비워 다시 쓰고, 압축할 청크가 더 있으면 이어서 한다.
+     */
+    private void compactDeadChunks(long budget) {
+        while (budget > 0) {
+            if (compactingChunk == -1) {
+                if (!compactionDue || (compactingChunk = nextDeadChunk()) == -1) {
+                    compactionDue = false;
+                    return;
+                }
+                compactCursor = 0;
+            }
+            int chunk = compactingChunk;
+            if (compactCursor == recordCounts[chunk]) {
+                deadBytes[chunk] = 0;
+                recordCounts[chunk] = 0;
+                freeChunks.push(chunk);
+                compactingChunk = -1;
+                continue;
+            }
+            long position = ((long) chunk << CHUNK_SHIFT) | recordOffsets[chunk][compactCursor++];
+            int recordSize = recordSize(position);
+            budget -= recordSize;
+            // 레코드는 줄여 덮어써도 같은 id 로 같은 자리에서 시작하므로, 인덱스가 이 자리를 가리킬 때만 살아 있다.
+            long id = chunks.get(chunk).getLong(offsetOf(position));
+            if (index.get(id) == position) {
+                move(id, position, recordSize);
+            }
+        }
+    }
+
+    private int nextDeadChunk() {
+        for (int chunk = 0; chunk < deadBytes.length; chunk++) {
+            if (chunk != activeChunk && deadBytes[chunk] >= COMPACT_THRESHOLD) {
+                return chunk;
+            }
+        }
+        return -1;
+    }
+
+    private void move(long id, long from, int recordSize) {
+        int offset = offsetOf(from);
+        long position = reserve(recordSize);
+        ByteBuffer target = chunks.get(chunkOf(position)).duplicate();
+        target.position(offsetOf(position));
+        target.put(chunks.get(chunkOf(from)).duplicate().position(offset).limit(offset + recordSize));
+        index.put(id, position);
+    }
+
+    private void write(long position, long id, byte grade, byte[] name) {
+        ByteBuffer chunk = chunks.get(chunkOf(position));
+        int offset = offsetOf(position);
+        chunk.putLong(offset, id);
+        chunk.put(offset + Long.BYTES, grade);
+        chunk.putShort(offset + Long.BYTES + Byte.BYTES, (short) (name == null ? NULL_NAME : name.length));
+        if (name != null) {
+            chunk.duplicate().position(offset + HEADER_SIZE).put(name);
+        }
+    }
+
+    private int recordSize(long position) {
+        int nameLength = Short.toUnsignedInt(chunks.get(chunkOf(position)).getShort(offsetOf(position) + Long.BYTES + Byte.BYTES));
+        return HEADER_SIZE + (nameLength == NULL_NAME ? 0 : nameLength);
+    }
+
+    private Member read(long position) {
+        ByteBuffer chunk = chunks.get(chunkOf(position));
+        int offset = offsetOf(position);
+        long id = chunk.getLong(offset);
+        byte ordinal = chunk.get(offset + Long.BYTES);
+        Grade grade = ordinal == NULL_GRADE ? null : GRADES[ordinal];
+        int nameLength = Short.toUnsignedInt(chunk.getShort(offset + Long.BYTES + Byte.BYTES));
+        if (nameLength == NULL_NAME) {
+            return new Member(id, null, grade);
+        }
+        byte[] name = new byte[nameLength];
+        chunk.duplicate().position(offset + HEADER_SIZE).get(name);
+        return new Member(id, new String(name, StandardCharsets.UTF_8), grade);
+    }
+
+    private static int chunkOf(long position) {
+        return (int) (position >>> CHUNK_SHIFT);
+    }
+
+    private static int offsetOf(long position) {
+        return (int) (position & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * 슬롯 범위 [slot, fence) 를 SCAN_BATCH 개씩 읽는다. 나눌 때는 남은 범위를 반씩 나눈다.
+     */
+    private final class MemberSpliterator implements Spliterator<Member> {
+
+        private final LongPositionIndex.Slots slots;
+        private final int fence;
+        private final List<Member> batch = new ArrayList<>();
+        private int slot;
+        private int next;
+
+        MemberSpliterator(LongPositionIndex.Slots slots, int slot, int fence) {
+            this.slots = slots;
+            this.slot = slot;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Member> action) {
+            if (next == batch.size() && !fill()) {
+                return false;
+            }
+            action.accept(batch.get(next++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Member> action) {
+            do {
+                while (next < batch.size()) {
+                    action.accept(batch.get(next++));
+                }
+            } while (fill());
+        }
+
+        @Override
+        public Spliterator<Member> trySplit() {
+            int mid = (slot + fence) >>> 1;
+            if (next < batch.size() || mid - slot < SCAN_BATCH) {
+                return null;
+            }
+            MemberSpliterator prefix = new MemberSpliterator(slots, slot, mid);
+            slot = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - slot + batch.size() - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL | CONCURRENT;
+        }
+
+        /**
+         * 회원이 하나라도 담긴 다음 묶음을 읽는다. 남은 슬롯이 없으면 false.
+         */
+        private boolean fill() {
+            batch.clear();
+            next = 0;
+            while (batch.isEmpty() && slot < fence) {
+                int to = Math.min(fence, slot + SCAN_BATCH);
+                lock.readLock().lock();
+                try {
+                    slots.forEach(slot, to, (id, ignored) -> {
+                        long position = index.get(id);
+                        if (position != LongPositionIndex.ABSENT) {
+                            batch.add(read(position));
+                        }
+                    });
+                } finally {
+                    lock.readLock().unlock();
+                }
+                slot = to;
+            }
+            return !batch.isEmpty();
+        }
+    }
+}
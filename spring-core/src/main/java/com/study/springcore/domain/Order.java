@@ -2,23 +2,35 @@ package com.study.springcore.domain;
 
 public class Order {
 
-    private Long memberId;
-    private String itemName;
-    private int itemPrice;
-    private int discountPrice;
+    private final long memberId;
+    private final String itemName;
+    private final long itemPrice;
+    private final long discountPrice;
 
-    public Order(Long memberId, String itemName, int itemPrice, int discountPrice) {
+    public Order(long memberId, String itemName, long itemPrice, long discountPrice) {
         this.memberId = memberId;
         this.itemName = itemName;
         this.itemPrice = itemPrice;
         this.discountPrice = discountPrice;
     }
 
-    public int calcPrice() {
-        return itemPrice - discountPrice;
+    public long calcPrice() {
+        return Math.subtractExact(itemPrice, discountPrice);
     }
 
-    public int getDiscountPrice() {
+    public long getMemberId() {
+        return memberId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public long getItemPrice() {
+        return itemPrice;
+    }
+
+    public long getDiscountPrice() {
         return discountPrice;
     }
 }
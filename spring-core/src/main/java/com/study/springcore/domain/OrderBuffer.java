@@ -0,0 +1,99 @@
+package com.study.springcore.domain;
+
+import java.util.Arrays;
+
+/**
+ * 주문을 객체 대신 원시 배열의 행으로 담는 재사용 버퍼(flyweight).
+ * 한 번 충분한 크기로 늘어난 뒤에는 clear 하고 다시 채워도 주문마다 할당이 일어나지 않는다.
+ * 금액은 long 으로 다루고, 행 금액과 합계는 넘치면 ArithmeticException 을 던진다.
+ */
+public class OrderBuffer {
+
+    private long[] memberIds;
+    private String[] itemNames;
+    private long[] itemPrices;
+    private long[] discountPrices;
+    private int size;
+
+    public OrderBuffer(int capacity) {
+        memberIds = new long[capacity];
+        itemNames = new String[capacity];
+        itemPrices = new long[capacity];
+        discountPrices = new long[capacity];
+    }
+
+    public int add(long memberId, String itemName, long itemPrice) {
+        if (size == memberIds.length) {
+            grow();
+        }
+        memberIds[size] = memberId;
+        itemNames[size] = itemName;
+        itemPrices[size] = itemPrice;
+        discountPrices[size] = 0;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(itemNames, 0, size, null); // 다 쓴 상품명 참조는 해제한다.
+        size = 0;
+    }
+
+    public long getMemberId(int row) {
+        return memberIds[checkRow(row)];
+    }
+
+    public String getItemName(int row) {
+        return itemNames[checkRow(row)];
+    }
+
+    public long getItemPrice(int row) {
+        return itemPrices[checkRow(row)];
+    }
+
+    public long getDiscountPrice(int row) {
+        return discountPrices[checkRow(row)];
+    }
+
+    public void setDiscountPrice(int row, long discountPrice) {
+        discountPrices[checkRow(row)] = discountPrice;
+    }
+
+    public long calcPrice(int row) {
+        return Math.subtractExact(itemPrices[checkRow(row)], discountPrices[row]);
+    }
+
+    public long totalPrice() {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            total = Math.addExact(total, Math.subtractExact(itemPrices[row], discountPrices[row]));
+        }
+        return total;
+    }
+
+    public long totalDiscount() {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            total = Math.addExact(total, discountPrices[row]);
+        }
+        return total;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = 2 * memberIds.length + 1;
+        memberIds = Arrays.copyOf(memberIds, capacity);
+        itemNames = Arrays.copyOf(itemNames, capacity);
+        itemPrices = Arrays.copyOf(itemPrices, capacity);
+        discountPrices = Arrays.copyOf(discountPrices, capacity);
+    }
+}
@@ -0,0 +1,500 @@
+package com.study.springcore.domain;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 만들어진 주문을 덧붙이기만 하는 원장.
+ * 주문 65,536건을 한 세그먼트로 묶고, 세그먼트 안에서는 회원 id, 상품 id, 가격, 할인 금액, 시각, 등급을 열마다 원시 배열에 담는다.
+ * 상품명은 상품 id 로 바꿔 한 번만 들고 있고, 등급은 byte 하나로 담는다.
+ *
+ * 쓰는 쪽은 행 번호를 원자적으로 하나 받아 자기 행만 채우고, 마지막에 등급 칸을 release 로 써서 행을 공개한다.
+ * 그래서 쓰는 쪽끼리도, 읽는 쪽과도 잠금을 주고받지 않는다. 세그먼트의 마지막 행을 공개한 쓰기가 봉인을 맡기고 바로 돌아오며,
+ * 백그라운드 스레드가 세그먼트를 차례로 봉인한다. 디렉터리를 주었으면 봉인한 세그먼트를 파일로 옮겨 mmap 한다.
+ * 봉인한 것으로 바꿔 끼우기 전까지 읽기는 쓰던 세그먼트를 그대로 읽는다.
+ * 집계는 봉인한 세그먼트를 분기 없는 루프로 훑고, 시각 범위를 벗어난 세그먼트는 최소/최대 시각만 보고 건너뛴다.
+ *
+ * 파일은 봉인한 세그먼트를 힙 밖에 두려는 것이고, 재시작한 뒤 다시 여는 기능은 없다.
+ * 컨테이너에서는 EnableOrderLedger 로 켠다.
+ */
+public class OrderLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderLedger.class);
+
+    private static final int SEGMENT_SHIFT = 16;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int ROW_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES * 3 + Byte.BYTES;
+    // 세그먼트의 모든 금액이 이 값 이하이면 한 세그먼트의 합이 long 을 넘지 않는다.
+    private static final long SAFE_PRICE = Long.MAX_VALUE / SEGMENT_SIZE;
+
+    // 등급 칸의 값. 0 은 아직 공개하지 않은 행이고, 등급은 ordinal + 1, 회원이 없던 주문은 NO_GRADE 다.
+    private static final byte UNCOMMITTED = 0;
+    private static final byte NO_GRADE = -1;
+    // 집계할 때 등급을 가리지 않는다는 뜻. 행에는 쓰이지 않는 값이다.
+    private static final byte ANY_GRADE = 0;
+    private static final int NO_ITEM = -1;
+
+    private static final VarHandle GRADE = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final Executor SEALER = runnable -> {
+        Thread thread = new Thread(runnable, "order-ledger-sealer");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final Path directory;
+    private final AtomicLong next = new AtomicLong();
+    private final ConcurrentHashMap<String, Integer> itemIds = new ConcurrentHashMap<>();
+    private volatile String[] itemNames = new String[16];
+    private volatile Part[] segments = new Part[0];
+    // 봉인을 하나씩 이어 붙인 것. 파일을 만들고 복사하는 일이 동시에 여럿 돌지 않는다.
+    private CompletableFuture<Void> sealing = CompletableFuture.completedFuture(null);
+
+    /**
+     * 봉인한 세그먼트도 힙에 둔다. 주문 수만큼 힙이 커지므로 테스트나 벤치마크처럼 짧게 쓸 때만 쓴다.
+     */
+    public OrderLedger() {
+        this.directory = null;
+    }
+
+    /**
+     * 봉인한 세그먼트를 directory 아래 orders-N.seg 파일로 옮겨 mmap 한다.
+     */
+    public OrderLedger(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public long append(Order order, Grade grade) {
+        return append(order, grade, System.currentTimeMillis());
+    }
+
+    /**
+     * 주문을 덧붙이고 행 번호를 돌려준다.
+     * 행 번호를 받은 뒤에는 실패할 일이 없어야 하므로 상품 id 조회를 먼저 한다.
+     */
+    public long append(Order order, Grade grade, long timestampMillis) {
+        return append(order.getMemberId(), order.getItemName(), order.getItemPrice(), order.getDiscountPrice(), grade,
+            timestampMillis);
+    }
+
+    /**
+     * Order 를 만들지 않고 덧붙인다. OrderBuffer 의 행처럼 주문을 열로 들고 있는 곳에서 쓴다.
+     */
+    public long append(long memberId, String itemName, long itemPrice, long discountPrice, Grade grade,
+        long timestampMillis) {
+        int itemId = itemId(itemName);
+
+        long row = next.getAndIncrement();
+        int index = (int) (row >>> SEGMENT_SHIFT);
+        Active segment = active(index);
+        int offset = (int) row & SEGMENT_MASK;
+        segment.memberIds[offset] = memberId;
+        segment.itemIds[offset] = itemId;
+        segment.itemPrices[offset] = itemPrice;
+        segment.discountPrices[offset] = discountPrice;
+        segment.timestamps[offset] = timestampMillis;
+        GRADE.setRelease(segment.grades, offset, grade == null ? NO_GRADE : (byte) (grade.ordinal() + 1));
+
+        if (segment.committed.incrementAndGet() == SEGMENT_SIZE) {
+            scheduleSeal(index, segment);
+        }
+        return row;
+    }
+
+    /**
+     * row 번째 주문. 아직 공개되지 않았으면 null 이다.
+     */
+    public Order get(long row) {
+        if (row < 0 || row >= next.get()) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + next.get());
+        }
+        Part[] parts = segments;
+        int index = (int) (row >>> SEGMENT_SHIFT);
+        if (index >= parts.length || parts[index] == null) {
+            return null;
+        }
+        return parts[index].get((int) row & SEGMENT_MASK, this::itemName);
+    }
+
+    public OrderTotals totals() {
+        return totals(null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public OrderTotals totals(Grade grade) {
+        return totals(grade, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public OrderTotals totals(long fromMillis, long toMillis) {
+        return totals(null, fromMillis, toMillis);
+    }
+
+    /**
+     * 시각이 [fromMillis, toMillis) 이고 등급이 grade 인 주문의 합계. grade 가 null 이면 등급을 가리지 않는다.
+     * 집계를 시작할 때까지 공개된 주문은 모두 들어가고, 집계하는 동안 덧붙는 주문은 들어갈 수도 있다.
+     */
+    public OrderTotals totals(Grade grade, long fromMillis, long toMillis) {
+        byte code = grade == null ? ANY_GRADE : (byte) (grade.ordinal() + 1);
+        // 행 수를 먼저 읽는다. 그 뒤에 읽은 세그먼트 목록에는 그 행들이 들어갈 세그먼트가 모두 있거나 아직 공개 전이다.
+        long reserved = next.get();
+        Part[] parts = segments;
+        Sum sum = new Sum();
+        for (int i = 0; i < parts.length; i++) {
+            if (parts[i] != null) {
+                long limit = Math.min(SEGMENT_SIZE, Math.max(0, reserved - ((long) i << SEGMENT_SHIFT)));
+                parts[i].addTo(sum, code, fromMillis, toMillis, (int) limit);
+            }
+        }
+        return new OrderTotals(sum.count, sum.itemPrice, sum.discountPrice);
+    }
+
+    private String itemName(int itemId) {
+        return itemId == NO_ITEM ? null : itemNames[itemId];
+    }
+
+    private int itemId(String itemName) {
+        if (itemName == null) {
+            return NO_ITEM;
+        }
+        Integer id = itemIds.get(itemName);
+        return id != null ? id : newItemId(itemName);
+    }
+
+    private synchronized int newItemId(String itemName) {
+        Integer id = itemIds.get(itemName);
+        if (id != null) {
+            return id;
+        }
+        int newId = itemIds.size();
+        String[] names = itemNames;
+        if (newId == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[newId] = itemName;
+        itemNames = names;
+        // 이름을 먼저 공개하고 id 를 내준다. 그 id 를 담은 행을 읽는 쪽은 이름도 볼 수 있다.
+        itemIds.put(itemName, newId);
+        return newId;
+    }
+
+    private Active active(int index) {
+        Part[] parts = segments;
+        if (index < parts.length && parts[index] != null) {
+            return (Active) parts[index];
+        }
+        synchronized (this) {
+            parts = segments;
+            if (index < parts.length && parts[index] != null) {
+                return (Active) parts[index];
+            }
+            parts = Arrays.copyOf(parts, Math.max(parts.length, index + 1));
+            Active segment = new Active();
+            parts[index] = segment;
+            segments = parts;
+            return segment;
+        }
+    }
+
+    /**
+     * 맡겨 둔 봉인이 모두 끝날 때까지 기다린다.
+     */
+    void awaitSealed() {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            pending = sealing;
+        }
+        pending.join();
+    }
+
+    private synchronized void scheduleSeal(int index, Active segment) {
+        sealing = sealing.thenRunAsync(() -> {
+            try {
+                seal(index, segment);
+            } catch (RuntimeException e) {
+                // 쓰던 세그먼트도 읽을 수 있으므로 그대로 두고 다음 봉인을 이어 간다.
+                log.error("failed to seal order segment {}", index, e);
+            }
+        }, SEALER);
+    }
+
+    /**
+     * 모든 행이 공개된 세그먼트를 봉인한 것으로 바꾼다. 이전 것을 훑고 있던 읽기는 그대로 이전 배열을 읽는다.
+     */
+    private void seal(int index, Active segment) {
+        Part sealed;
+        if (directory == null) {
+            sealed = Sealed.onHeap(segment);
+        } else {
+            Path path = directory.resolve("orders-" + index + ".seg");
+            try {
+                sealed = Sealed.map(segment, path);
+            } catch (IOException e) {
+                // 주문은 이미 기록됐으므로 실패로 돌려주지 않고 힙에 둔 채로 봉인한다.
+                log.warn("failed to map sealed order segment {}", path, e);
+                sealed = Sealed.onHeap(segment);
+            }
+        }
+        synchronized (this) {
+            Part[] parts = segments.clone();
+            parts[index] = sealed;
+            segments = parts;
+        }
+    }
+
+    private static final class Sum {
+
+        long count;
+        long itemPrice;
+        long discountPrice;
+
+        void add(long count, long itemPrice, long discountPrice) {
+            this.count += count;
+            this.itemPrice = Math.addExact(this.itemPrice, itemPrice);
+            this.discountPrice = Math.addExact(this.discountPrice, discountPrice);
+        }
+    }
+
+    private interface Part {
+
+        /**
+         * 앞쪽 limit 행 가운데 조건에 맞는 행을 sum 에 더한다. 합이 long 을 넘으면 ArithmeticException 을 던진다.
+         */
+        void addTo(Sum sum, byte grade, long from, long to, int limit);
+
+        /**
+         * 행을 Order 로 만든다. itemNames 는 행이 공개된 것을 확인한 뒤에 불러야 그 행의 상품명을 볼 수 있다.
+         */
+        Order get(int offset, IntFunction<String> itemNames);
+    }
+
+    /**
+     * 아직 쓰는 중인 세그먼트. 행마다 등급 칸을 acquire 로 읽어 공개된 행만 센다.
+     */
+    private static final class Active implements Part {
+
+        final long[] memberIds = new long[SEGMENT_SIZE];
+        final int[] itemIds = new int[SEGMENT_SIZE];
+        final long[] itemPrices = new long[SEGMENT_SIZE];
+        final long[] discountPrices = new long[SEGMENT_SIZE];
+        final long[] timestamps = new long[SEGMENT_SIZE];
+        final byte[] grades = new byte[SEGMENT_SIZE];
+        final AtomicInteger committed = new AtomicInteger();
+
+        @Override
+        public void addTo(Sum sum, byte grade, long from, long to, int limit) {
+            long count = 0;
+            long itemPrice = 0;
+            long discountPrice = 0;
+            for (int i = 0; i < limit; i++) {
+                byte code = (byte) GRADE.getAcquire(grades, i);
+                if (code == UNCOMMITTED || (grade != ANY_GRADE && code != grade)) {
+                    continue;
+                }
+                long t = timestamps[i];
+                if (t >= from && t < to) {
+                    count++;
+                    itemPrice = Math.addExact(itemPrice, itemPrices[i]);
+                    discountPrice = Math.addExact(discountPrice, discountPrices[i]);
+                }
+            }
+            sum.add(count, itemPrice, discountPrice);
+        }
+
+        @Override
+        public Order get(int offset, IntFunction<String> itemNames) {
+            byte code = (byte) GRADE.getAcquire(grades, offset);
+            if (code == UNCOMMITTED) {
+                return null;
+            }
+            return new Order(memberIds[offset], itemNames.apply(itemIds[offset]),
+                itemPrices[offset], discountPrices[offset]);
+        }
+    }
+
+    /**
+     * 모든 행이 공개되어 더는 바뀌지 않는 세그먼트. 열을 힙 배열이나 mmap 한 파일 위의 버퍼로 든다.
+     */
+    private static final class Sealed implements Part {
+
+        private final LongBuffer memberIds;
+        private final IntBuffer itemIds;
+        private final LongBuffer itemPrices;
+        private final LongBuffer discountPrices;
+        private final LongBuffer timestamps;
+        private final ByteBuffer grades;
+        private final long minTimestamp;
+        private final long maxTimestamp;
+        private final boolean smallPrices;
+
+        private Sealed(LongBuffer memberIds, IntBuffer itemIds, LongBuffer itemPrices, LongBuffer discountPrices,
+            LongBuffer timestamps, ByteBuffer grades, long minTimestamp, long maxTimestamp, boolean smallPrices) {
+            this.memberIds = memberIds;
+            this.itemIds = itemIds;
+            this.itemPrices = itemPrices;
+            this.discountPrices = discountPrices;
+            this.timestamps = timestamps;
+            this.grades = grades;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.smallPrices = smallPrices;
+        }
+
+        static Sealed onHeap(Active segment) {
+            return new Sealed(LongBuffer.wrap(segment.memberIds), IntBuffer.wrap(segment.itemIds),
+                LongBuffer.wrap(segment.itemPrices), LongBuffer.wrap(segment.discountPrices),
+                LongBuffer.wrap(segment.timestamps), ByteBuffer.wrap(segment.grades),
+                min(segment.timestamps), max(segment.timestamps), smallPrices(segment));
+        }
+
+        /**
+         * 열을 차례로 이어 붙인 파일을 만들고 mmap 한다. 내구성을 약속하지 않으므로 force 하지 않는다.
+         */
+        static Sealed map(Active segment, Path path) throws IOException {
+            MappedByteBuffer file;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                file = channel.map(MapMode.READ_WRITE, 0, (long) SEGMENT_SIZE * ROW_BYTES);
+            }
+            int position = 0;
+            LongBuffer memberIds = column(file, position, Long.BYTES).asLongBuffer().put(segment.memberIds);
+            position += SEGMENT_SIZE * Long.BYTES;
+            IntBuffer itemIds = column(file, position, Integer.BYTES).asIntBuffer().put(segment.itemIds);
+            position += SEGMENT_SIZE * Integer.BYTES;
+            LongBuffer itemPrices = column(file, position, Long.BYTES).asLongBuffer().put(segment.itemPrices);
+            position += SEGMENT_SIZE * Long.BYTES;
+            LongBuffer discountPrices = column(file, position, Long.BYTES).asLongBuffer()
+                .put(segment.discountPrices);
+            position += SEGMENT_SIZE * Long.BYTES;
+            LongBuffer timestamps = column(file, position, Long.BYTES).asLongBuffer().put(segment.timestamps);
+            position += SEGMENT_SIZE * Long.BYTES;
+            ByteBuffer grades = column(file, position, Byte.BYTES).put(segment.grades);
+
+            return new Sealed(memberIds.clear(), itemIds.clear(), itemPrices.clear(), discountPrices.clear(),
+                timestamps.clear(), grades.clear(), min(segment.timestamps), max(segment.timestamps),
+                smallPrices(segment));
+        }
+
+        /**
+         * 시각 범위가 세그먼트 전체를 덮고 등급을 가리지 않으면 가격 두 열만 더한다.
+         * 두 루프를 따로 두어 JIT 가 각각을 따로 컴파일하게 한다.
+         * 세그먼트 합이 long 을 넘을 수 있을 만큼 큰 금액이 있으면 행마다 넘침을 검사하는 루프로 더한다.
+         */
+        @Override
+        public void addTo(Sum sum, byte grade, long from, long to, int limit) {
+            if (maxTimestamp < from || minTimestamp >= to) {
+                return;
+            }
+            if (!smallPrices) {
+                addExact(sum, grade, from, to);
+            } else if (grade == ANY_GRADE && minTimestamp >= from && maxTimestamp < to) {
+                addAll(sum);
+            } else {
+                addMatching(sum, grade, from, to);
+            }
+        }
+
+        private void addAll(Sum sum) {
+            long itemPrice = 0;
+            long discountPrice = 0;
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                itemPrice += itemPrices.get(i);
+                discountPrice += discountPrices.get(i);
+            }
+            sum.add(SEGMENT_SIZE, itemPrice, discountPrice);
+        }
+
+        /**
+         * 조건 결과를 0/-1 마스크로 만들어 더하므로 루프 안에 분기가 없다. 등급이 섞여 있어도 분기 예측이 틀릴 일이 없다.
+         */
+        private void addMatching(Sum sum, byte grade, long from, long to) {
+            long count = 0;
+            long itemPrice = 0;
+            long discountPrice = 0;
+            boolean anyGrade = grade == ANY_GRADE;
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                long t = timestamps.get(i);
+                int hit = (t >= from) & (t < to) & (anyGrade | grades.get(i) == grade) ? 1 : 0;
+                long mask = -(long) hit;
+                count += hit;
+                itemPrice += itemPrices.get(i) & mask;
+                discountPrice += discountPrices.get(i) & mask;
+            }
+            sum.add(count, itemPrice, discountPrice);
+        }
+
+        private void addExact(Sum sum, byte grade, long from, long to) {
+            long count = 0;
+            long itemPrice = 0;
+            long discountPrice = 0;
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                long t = timestamps.get(i);
+                if (t >= from && t < to && (grade == ANY_GRADE || grades.get(i) == grade)) {
+                    count++;
+                    itemPrice = Math.addExact(itemPrice, itemPrices.get(i));
+                    discountPrice = Math.addExact(discountPrice, discountPrices.get(i));
+                }
+            }
+            sum.add(count, itemPrice, discountPrice);
+        }
+
+        @Override
+        public Order get(int offset, IntFunction<String> itemNames) {
+            return new Order(memberIds.get(offset), itemNames.apply(itemIds.get(offset)),
+                itemPrices.get(offset), discountPrices.get(offset));
+        }
+
+        private static ByteBuffer column(ByteBuffer file, int position, int width) {
+            ByteBuffer column = file.duplicate();
+            column.position(position).limit(position + SEGMENT_SIZE * width);
+            return column.slice().order(ByteOrder.nativeOrder());
+        }
+
+        private static boolean smallPrices(Active segment) {
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                if (!small(segment.itemPrices[i]) || !small(segment.discountPrices[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean small(long price) {
+            return price <= SAFE_PRICE && price >= -SAFE_PRICE;
+        }
+
+        private static long min(long[] values) {
+            long min = Long.MAX_VALUE;
+            for (long value : values) {
+                min = Math.min(min, value);
+            }
+            return min;
+        }
+
+        private static long max(long[] values) {
+            long max = Long.MIN_VALUE;
+            for (long value : values) {
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+    }
+}
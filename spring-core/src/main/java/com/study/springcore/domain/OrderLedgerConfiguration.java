@@ -0,0 +1,21 @@
+package com.study.springcore.domain;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * EnableOrderLedger 가 가져오는 설정.
+ * 컴포넌트 스캔에 걸리지 않도록 일부러 @Configuration 을 붙이지 않았다.
+ * 힙에만 두는 원장은 주문 수만큼 끝없이 커지므로 빈으로는 디렉터리에 mmap 하는 원장만 만든다.
+ */
+public class OrderLedgerConfiguration {
+
+    static final String DIRECTORY_PROPERTY = "springcore.order-ledger.directory";
+
+    @Bean
+    public OrderLedger orderLedger(Environment environment) throws IOException {
+        return new OrderLedger(Paths.get(environment.getRequiredProperty(DIRECTORY_PROPERTY)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.study.springcore.domain;
+
+public class OrderRequest {
+
+    private final long memberId;
+    private final String itemName;
+    private final long itemPrice;
+
+    public OrderRequest(long memberId, String itemName, long itemPrice) {
+        this.memberId = memberId;
+        this.itemName = itemName;
+        this.itemPrice = itemPrice;
+    }
+
+    public long getMemberId() {
+        return memberId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public long getItemPrice() {
+        return itemPrice;
+    }
+}
@@ -0,0 +1,41 @@
+package com.study.springcore.domain;
+
+/**
+ * OrderLedger 집계 결과. 금액은 모두 원 단위 합계다.
+ */
+public class OrderTotals {
+
+    private final long count;
+    private final long itemPrice;
+    private final long discountPrice;
+
+    public OrderTotals(long count, long itemPrice, long discountPrice) {
+        this.count = count;
+        this.itemPrice = itemPrice;
+        this.discountPrice = discountPrice;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getItemPrice() {
+        return itemPrice;
+    }
+
+    public long getDiscountPrice() {
+        return discountPrice;
+    }
+
+    /**
+     * 주문마다 calcPrice() 를 더한 값과 같다.
+     */
+    public long revenue() {
+        return Math.subtractExact(itemPrice, discountPrice);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderTotals{count=" + count + ", itemPrice=" + itemPrice + ", discountPrice=" + discountPrice + '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.study.springcore.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 설정 클래스에 붙이면 서비스 계측을 켠다. 붙이지 않으면 아무것도 감싸지 않으므로 비용이 없다.
+ * 보고 간격은 springcore.metrics.report-interval-seconds 속성으로 바꾼다(기본 60초).
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import(ServiceMetricsConfiguration.class)
+public @interface EnableServiceMetrics {
+}
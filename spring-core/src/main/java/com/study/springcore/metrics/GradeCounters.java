@@ -0,0 +1,29 @@
+package com.study.springcore.metrics;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grade 마다 카운터 하나. ordinal 로 찾으므로 호출 경로에서 맵을 뒤지지 않는다.
+ */
+final class GradeCounters {
+
+    private GradeCounters() {
+    }
+
+    static LongAdder[] of(ServiceMetrics metrics, String prefix) {
+        Grade[] grades = Grade.values();
+        LongAdder[] counters = new LongAdder[grades.length];
+        for (Grade grade : grades) {
+            counters[grade.ordinal()] = metrics.counter(prefix + ".grade." + grade);
+        }
+        return counters;
+    }
+
+    static void increment(LongAdder[] counters, Member member) {
+        if (member != null && member.getGrade() != null) {
+            counters[member.getGrade().ordinal()].increment();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.study.springcore.metrics;
+
+import com.study.springcore.domain.MemberRepository;
+import com.study.springcore.service.DiscountPolicy;
+import com.study.springcore.service.MemberService;
+import com.study.springcore.service.OrderService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * 서비스, 할인 정책, 저장소 빈을 계측 데코레이터로 감싼다. 서비스 코드는 그대로 두고 컨테이너에서만 끼워 넣는다.
+ * 감싼 빈은 인터페이스로만 주입받을 수 있다. 구현 클래스 타입으로 찾으면 찾지 못한다.
+ * 지표 이름은 빈 이름.메서드 이다.
+ */
+public class InstrumentationPostProcessor implements BeanPostProcessor {
+
+    private final ServiceMetrics metrics;
+
+    public InstrumentationPostProcessor(ServiceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof MemberService) {
+            return new InstrumentedMemberService((MemberService) bean, metrics, beanName);
+        }
+        if (bean instanceof OrderService) {
+            return new InstrumentedOrderService((OrderService) bean, metrics, beanName);
+        }
+        if (bean instanceof DiscountPolicy) {
+            return new InstrumentedDiscountPolicy((DiscountPolicy) bean, metrics, beanName);
+        }
+        if (bean instanceof MemberRepository) {
+            return new InstrumentedMemberRepository((MemberRepository) bean, metrics, beanName);
+        }
+        return bean;
+    }
+}
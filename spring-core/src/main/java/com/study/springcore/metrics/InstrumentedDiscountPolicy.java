@@ -0,0 +1,40 @@
+package com.study.springcore.metrics;
+
+import com.study.springcore.domain.Member;
+import com.study.springcore.service.DiscountPolicy;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 정책마다 몇 번 불렸고 그중 몇 번 할인했는지를 회원 등급별로 센다.
+ * 할인 계산은 수 나노초라서 지연은 재지 않는다. 재면 시계를 읽는 비용이 계산보다 커진다.
+ */
+public class InstrumentedDiscountPolicy implements DiscountPolicy {
+
+    private final DiscountPolicy delegate;
+    private final LongAdder[] callsByGrade;
+    private final LongAdder[] discountsByGrade;
+
+    public InstrumentedDiscountPolicy(DiscountPolicy delegate, ServiceMetrics metrics, String name) {
+        this.delegate = delegate;
+        this.callsByGrade = GradeCounters.of(metrics, name + ".calls");
+        this.discountsByGrade = GradeCounters.of(metrics, name + ".discounted");
+    }
+
+    @Override
+    public long discount(Member member, long price) {
+        return count(member, delegate.discount(member, price));
+    }
+
+    @Override
+    public long discount(Member member, String itemName, long price) {
+        return count(member, delegate.discount(member, itemName, price));
+    }
+
+    private long count(Member member, long discount) {
+        GradeCounters.increment(callsByGrade, member);
+        if (discount != 0) {
+            GradeCounters.increment(discountsByGrade, member);
+        }
+        return discount;
+    }
+}
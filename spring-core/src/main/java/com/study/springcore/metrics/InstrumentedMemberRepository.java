@@ -0,0 +1,90 @@
+package com.study.springcore.metrics;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * MemberRepository 호출마다 지연을 기록한다. findAllById 는 감싼 저장소의 구현을 그대로 쓴다.
+ * scan 과 findByGrade 는 재지 않는다. 훑는 시간은 스트림을 만들 때가 아니라 호출한 쪽이 소비할 때 쓰인다.
+ */
+public class InstrumentedMemberRepository implements MemberRepository {
+
+    private final MemberRepository delegate;
+    private final LatencyHistogram saveLatency;
+    private final LatencyHistogram saveAllLatency;
+    private final LatencyHistogram findByIdLatency;
+    private final LatencyHistogram findAllByIdLatency;
+
+    public InstrumentedMemberRepository(MemberRepository delegate, ServiceMetrics metrics, String name) {
+        this.delegate = delegate;
+        this.saveLatency = metrics.latency(name + ".save");
+        this.saveAllLatency = metrics.latency(name + ".saveAll");
+        this.findByIdLatency = metrics.latency(name + ".findById");
+        this.findAllByIdLatency = metrics.latency(name + ".findAllById");
+    }
+
+    @Override
+    public void save(Member member) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(member);
+        } finally {
+            saveLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Member> members) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(members);
+        } finally {
+            saveAllLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } finally {
+            findByIdLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Member findById(long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } finally {
+            findByIdLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Map<Long, Member> findAllById(Collection<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAllById(ids);
+        } finally {
+            findAllByIdLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Stream<Member> scan() {
+        return delegate.scan();
+    }
+
+    @Override
+    public Stream<Member> findByGrade(Grade grade) {
+        return delegate.findByGrade(grade);
+    }
+}
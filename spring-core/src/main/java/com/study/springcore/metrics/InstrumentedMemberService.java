@@ -0,0 +1,44 @@
+package com.study.springcore.metrics;
+
+import com.study.springcore.domain.Member;
+import com.study.springcore.service.MemberService;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MemberService 호출마다 지연을 기록하고, join 은 회원 등급별로 센다.
+ */
+public class InstrumentedMemberService implements MemberService {
+
+    private final MemberService delegate;
+    private final LatencyHistogram joinLatency;
+    private final LatencyHistogram findMemberLatency;
+    private final LongAdder[] joinsByGrade;
+
+    public InstrumentedMemberService(MemberService delegate, ServiceMetrics metrics, String name) {
+        this.delegate = delegate;
+        this.joinLatency = metrics.latency(name + ".join");
+        this.findMemberLatency = metrics.latency(name + ".findMember");
+        this.joinsByGrade = GradeCounters.of(metrics, name + ".join");
+    }
+
+    @Override
+    public void join(Member member) {
+        long start = System.nanoTime();
+        try {
+            delegate.join(member);
+        } finally {
+            joinLatency.record(System.nanoTime() - start);
+        }
+        GradeCounters.increment(joinsByGrade, member);
+    }
+
+    @Override
+    public Member findMember(Long memberId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findMember(memberId);
+        } finally {
+            findMemberLatency.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.study.springcore.metrics;
+
+import com.study.springcore.domain.Order;
+import com.study.springcore.domain.OrderBuffer;
+import com.study.springcore.domain.OrderRequest;
+import com.study.springcore.service.OrderService;
+import java.util.List;
+
+/**
+ * OrderService 호출마다 지연을 기록한다. 일괄 API 는 호출 한 번을 한 번으로 기록한다.
+ */
+public class InstrumentedOrderService implements OrderService {
+
+    private final OrderService delegate;
+    private final LatencyHistogram createOrderLatency;
+    private final LatencyHistogram createOrdersLatency;
+    private final LatencyHistogram priceOrdersLatency;
+
+    public InstrumentedOrderService(OrderService delegate, ServiceMetrics metrics, String name) {
+        this.delegate = delegate;
+        this.createOrderLatency = metrics.latency(name + ".createOrder");
+        this.createOrdersLatency = metrics.latency(name + ".createOrders");
+        this.priceOrdersLatency = metrics.latency(name + ".priceOrders");
+    }
+
+    @Override
+    public Order createOrder(long memberId, String itemName, long itemPrice) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createOrder(memberId, itemName, itemPrice);
+        } finally {
+            createOrderLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Order> createOrders(List<OrderRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createOrders(requests);
+        } finally {
+            createOrdersLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public OrderBuffer priceOrders(OrderBuffer orders) {
+        long start = System.nanoTime();
+        try {
+            return delegate.priceOrders(orders);
+        } finally {
+            priceOrdersLatency.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.study.springcore.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 나노초 지연을 담는 HDR 방식의 히스토그램.
+ * 64ns 까지는 1ns 단위로, 그 위로는 2의 거듭제곱 구간마다 32칸으로 나눠 세므로 상대 오차가 3% 를 넘지 않는다.
+ * 칸이 값의 크기와 상관없이 1,888개로 정해져 있어서 기록은 배열 한 칸을 올리는 것으로 끝난다.
+ *
+ * 스레드마다 카운터 배열을 따로 두면 가장 빠르지만, 작업마다 가상 스레드를 만드는 실행기에서는 배열이 끝없이 늘어난다.
+ * 그래서 스레드 id 로 고른 스트라이프에 기록한다. 스레드가 코어 수보다 아주 많지 않으면 스트라이프를 혼자 쓰므로
+ * 경합 없는 원자적 덧셈 한 번의 비용만 든다. snapshot 은 스트라이프를 모두 더해 그 순간의 분포를 만든다.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int LINEAR = SUB * 2;
+    static final int BUCKETS = LINEAR + (Long.SIZE - 2 - SUB_BITS) * SUB;
+    // 마지막 칸에는 값의 합을 담아 평균을 낸다.
+    private static final int SUM = BUCKETS;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        int stripes = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors() * 2) - 1) << 1;
+        this.stripes = new AtomicLongArray[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new AtomicLongArray(BUCKETS + 1);
+        }
+        this.stripeMask = this.stripes.length - 1;
+    }
+
+    /**
+     * @param nanos 음수는 0 으로 기록한다
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray stripe = stripes[(int) mix(Thread.currentThread().getId()) & stripeMask];
+        stripe.getAndIncrement(bucket(value));
+        stripe.getAndAdd(SUM, value);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long sum = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+            sum += stripe.get(SUM);
+        }
+        return new HistogramSnapshot(counts, sum);
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int mantissa = (int) (value >>> shift);
+        return LINEAR + (shift - 1) * SUB + (mantissa - SUB);
+    }
+
+    /**
+     * bucket 칸에 드는 가장 큰 값. 백분위를 이 값으로 보고하므로 실제보다 작게 보고되는 일은 없다.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR) / SUB + 1;
+        long mantissa = (bucket - LINEAR) % SUB + SUB;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private static long mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,23 @@
+package com.study.springcore.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 히스토그램은 한 줄씩 백분위로, 카운터는 이름=값으로 INFO 로그에 남긴다.
+ */
+public class LoggingMetricsReporter implements MetricsReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingMetricsReporter.class);
+
+    @Override
+    public void report(MetricsSnapshot snapshot) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        snapshot.latencies().forEach((name, histogram) -> log.info("{} {}", name, histogram));
+        if (!snapshot.counters().isEmpty()) {
+            log.info("counters {}", snapshot.counters());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.study.springcore.metrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 정해진 간격마다 ServiceMetrics 의 스냅숏을 떠서 모든 MetricsReporter 에 넘긴다.
+ * 스냅숏은 데몬 스레드 하나에서 뜨므로 서비스를 부르는 스레드는 기록만 한다.
+ * close 할 때 마지막으로 한 번 더 보고한다.
+ */
+public class MetricsPublisher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsPublisher.class);
+
+    private final ServiceMetrics metrics;
+    private final List<MetricsReporter> reporters;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsPublisher(ServiceMetrics metrics, List<MetricsReporter> reporters, Duration interval) {
+        this.metrics = metrics;
+        this.reporters = List.copyOf(reporters);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleAtFixedRate(this::publish, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void publish() {
+        MetricsSnapshot snapshot = metrics.snapshot();
+        for (MetricsReporter reporter : reporters) {
+            try {
+                reporter.report(snapshot);
+            } catch (RuntimeException e) {
+                // 보고가 실패해도 다음 주기와 다른 reporter 는 계속 돌아야 한다.
+                log.warn("metrics reporter {} failed", reporter.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        publish();
+    }
+}
@@ -0,0 +1,11 @@
+package com.study.springcore.metrics;
+
+/**
+ * 주기적으로 MetricsSnapshot 을 받아 내보내는 곳. 로그, JMX, HTTP 등 원하는 대로 구현해 빈으로 등록한다.
+ * 빈이 하나도 없으면 LoggingMetricsReporter 를 쓴다.
+ */
+@FunctionalInterface
+public interface MetricsReporter {
+
+    void report(MetricsSnapshot snapshot);
+}
@@ -0,0 +1,26 @@
+package com.study.springcore.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * ServiceMetrics 의 한 순간 값. 이름 순으로 정렬돼 있다.
+ */
+public final class MetricsSnapshot {
+
+    private final Map<String, HistogramSnapshot> latencies;
+    private final Map<String, Long> counters;
+
+    MetricsSnapshot(Map<String, HistogramSnapshot> latencies, Map<String, Long> counters) {
+        this.latencies = Collections.unmodifiableMap(latencies);
+        this.counters = Collections.unmodifiableMap(counters);
+    }
+
+    public Map<String, HistogramSnapshot> latencies() {
+        return latencies;
+    }
+
+    public Map<String, Long> counters() {
+        return counters;
+    }
+}
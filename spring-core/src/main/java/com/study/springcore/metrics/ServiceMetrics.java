@@ -0,0 +1,32 @@
+package com.study.springcore.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 이름으로 히스토그램과 카운터를 찾아 주는 저장소.
+ * 이름으로 찾는 것은 데코레이터를 만들 때 한 번뿐이고, 호출 경로에서는 찾아 둔 객체에 바로 기록한다.
+ */
+public class ServiceMetrics {
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public LatencyHistogram latency(String name) {
+        return latencies.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, HistogramSnapshot> latencySnapshots = new TreeMap<>();
+        latencies.forEach((name, histogram) -> latencySnapshots.put(name, histogram.snapshot()));
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+        return new MetricsSnapshot(latencySnapshots, counterValues);
+    }
+}
@@ -0,0 +1,40 @@
+package com.study.springcore.metrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * EnableServiceMetrics 가 가져오는 설정.
+ * 컴포넌트 스캔에 걸리지 않도록 일부러 @Configuration 을 붙이지 않았다. 붙이면 AppConfig 만 써도 계측이 켜진다.
+ */
+public class ServiceMetricsConfiguration {
+
+    static final String REPORT_INTERVAL_PROPERTY = "springcore.metrics.report-interval-seconds";
+    private static final long DEFAULT_REPORT_INTERVAL_SECONDS = 60;
+
+    // 후처리기가 다른 빈보다 먼저 만들어지면서 이것도 함께 만들어지므로, 설정 객체 없이 만들 수 있게 static 으로 둔다.
+    @Bean
+    public static ServiceMetrics serviceMetrics() {
+        return new ServiceMetrics();
+    }
+
+    @Bean
+    public static InstrumentationPostProcessor instrumentationPostProcessor(ServiceMetrics serviceMetrics) {
+        return new InstrumentationPostProcessor(serviceMetrics);
+    }
+
+    @Bean
+    public MetricsPublisher metricsPublisher(ServiceMetrics serviceMetrics, ObjectProvider<MetricsReporter> reporters,
+        Environment environment) {
+        List<MetricsReporter> configured = reporters.orderedStream().collect(Collectors.toList());
+        if (configured.isEmpty()) {
+            configured = List.of(new LoggingMetricsReporter());
+        }
+        long seconds = environment.getProperty(REPORT_INTERVAL_PROPERTY, Long.class, DEFAULT_REPORT_INTERVAL_SECONDS);
+        return new MetricsPublisher(serviceMetrics, configured, Duration.ofSeconds(seconds));
+    }
+}
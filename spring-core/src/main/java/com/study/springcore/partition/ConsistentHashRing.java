@@ -0,0 +1,70 @@
+package com.study.springcore.partition;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * 회원 id 를 샤드 번호로 바꾸는 consistent hashing 링.
+ * 샤드마다 가상 노드 virtualNodes 개를 링 위에 흩어 두고, id 의 해시보다 크거나 같은 첫 가상 노드의 샤드를 고른다.
+ * 샤드를 더해도 기존 가상 노드는 그대로이므로, 자리를 옮기는 id 는 모두 새 샤드로만 간다.
+ */
+public final class ConsistentHashRing {
+
+    private final int shards;
+    private final int virtualNodes;
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("shards: " + shards + ", virtualNodes: " + virtualNodes);
+        }
+        this.shards = shards;
+        this.virtualNodes = virtualNodes;
+
+        int size = shards * virtualNodes;
+        long[] hashes = new long[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = mix(((long) (i / virtualNodes) << 32) | (i % virtualNodes));
+        }
+        Integer[] order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong(i -> hashes[i]));
+
+        points = new long[size];
+        owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+    }
+
+    public int shardFor(long id) {
+        int index = Arrays.binarySearch(points, mix(id));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public int shardCount() {
+        return shards;
+    }
+
+    /**
+     * 샤드 하나를 뒤에 더한 링. 새 샤드의 번호는 지금의 shardCount() 다.
+     */
+    public ConsistentHashRing withShard() {
+        return new ConsistentHashRing(shards + 1, virtualNodes);
+    }
+
+    /**
+     * MurmurHash3 의 fmix64. 연속된 id 도 링 전체에 고르게 흩는다.
+     */
+    static long mix(long value) {
+        long h = value;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,74 @@
+package com.study.springcore.partition;
+
+import com.study.springcore.domain.Member;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 같은 프로세스 안의 샤드. 샤드마다 맵이 따로 있으므로 잠금도 샤드마다 나뉜다.
+ * MemberShardServer 가 다른 프로세스에서 이 샤드를 그대로 감싸 내놓는다.
+ */
+public class LocalMemberShard implements MemberShard {
+
+    private final Map<Long, Member> store = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(Member member) {
+        store.put(member.getId(), member);
+    }
+
+    @Override
+    public void saveAll(List<Member> members) {
+        for (Member member : members) {
+            store.put(member.getId(), member);
+        }
+    }
+
+    @Override
+    public void saveAllIfAbsent(List<Member> members) {
+        for (Member member : members) {
+            store.putIfAbsent(member.getId(), member);
+        }
+    }
+
+    @Override
+    public Member findById(long id) {
+        return store.get(id);
+    }
+
+    @Override
+    public Map<Long, Member> findAllById(Collection<Long> ids) {
+        Map<Long, Member> members = new HashMap<>(ids.size() * 4 / 3 + 1);
+        for (Long id : ids) {
+            Member member = store.get(id);
+            if (member != null) {
+                members.put(id, member);
+            }
+        }
+        return members;
+    }
+
+    @Override
+    public void removeAll(Collection<Long> ids) {
+        for (Long id : ids) {
+            store.remove(id);
+        }
+    }
+
+    @Override
+    public long[] ids() {
+        return store.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void close() {
+    }
+}
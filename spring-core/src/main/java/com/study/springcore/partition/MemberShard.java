@@ -0,0 +1,42 @@
+package com.study.springcore.partition;
+
+import com.study.springcore.domain.Member;
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PartitionedMemberRepository 가 회원을 나눠 담는 샤드. 같은 프로세스 안에 있을 수도, 다른 프로세스에 있을 수도 있다.
+ * 묶음 연산은 원격 샤드에서 요청 한 번으로 처리되므로 여러 건을 다룰 때는 묶음 연산을 쓴다.
+ */
+public interface MemberShard extends Closeable {
+
+    void save(Member member);
+
+    void saveAll(List<Member> members);
+
+    /**
+     * 아직 없는 id 만 저장한다. 재배치할 때 옮기는 동안 새로 저장된 회원을 옛 값으로 덮어쓰지 않으려고 쓴다.
+     */
+    void saveAllIfAbsent(List<Member> members);
+
+    Member findById(long id);
+
+    /**
+     * 없는 id 는 결과에 담기지 않는다.
+     */
+    Map<Long, Member> findAllById(Collection<Long> ids);
+
+    void removeAll(Collection<Long> ids);
+
+    /**
+     * 지금 담고 있는 모든 회원의 id. 재배치할 때 옮길 회원을 고르는 데 쓴다.
+     */
+    long[] ids();
+
+    int size();
+
+    @Override
+    void close();
+}
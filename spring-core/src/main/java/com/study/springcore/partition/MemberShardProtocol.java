@@ -0,0 +1,97 @@
+package com.study.springcore.partition;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * RemoteMemberShard 와 MemberShardServer 가 주고받는 바이너리 형식.
+ *
+ * 요청은 [op(1) | 본문], 응답은 [status(1) | 본문] 이다. 목록은 [건수(4) | 항목...] 으로 적고,
+ * 실패한 응답의 본문은 writeUTF 로 적은 오류 메시지다.
+ * 회원 한 명은 OffHeapMemberRepository 레코드와 같이 [id(8) | grade ordinal(1) | name 길이(2) | UTF-8 name] 로 적는다.
+ */
+final class MemberShardProtocol {
+
+    static final byte SAVE_ALL = 1;
+    static final byte SAVE_ALL_IF_ABSENT = 2;
+    static final byte FIND_ALL = 3;
+    static final byte REMOVE_ALL = 4;
+    static final byte IDS = 5;
+    static final byte SIZE = 6;
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    private static final Grade[] GRADES = Grade.values();
+    private static final byte NULL_GRADE = -1;
+    private static final int NULL_NAME = 0xFFFF;
+    private static final int MAX_NAME_BYTES = NULL_NAME - 1;
+
+    private MemberShardProtocol() {
+    }
+
+    static void writeMembers(DataOutputStream out, Collection<Member> members) throws IOException {
+        out.writeInt(members.size());
+        for (Member member : members) {
+            out.writeLong(member.getId());
+            out.writeByte(member.getGrade() == null ? NULL_GRADE : member.getGrade().ordinal());
+            if (member.getName() == null) {
+                out.writeShort(NULL_NAME);
+                continue;
+            }
+            byte[] name = member.getName().getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("member name is too long: " + name.length + " bytes");
+            }
+            out.writeShort(name.length);
+            out.write(name);
+        }
+    }
+
+    static List<Member> readMembers(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            byte grade = in.readByte();
+            int nameLength = in.readUnsignedShort();
+            String name = null;
+            if (nameLength != NULL_NAME) {
+                byte[] bytes = new byte[nameLength];
+                in.readFully(bytes);
+                name = new String(bytes, StandardCharsets.UTF_8);
+            }
+            members.add(new Member(id, name, grade == NULL_GRADE ? null : GRADES[grade]));
+        }
+        return members;
+    }
+
+    static void writeIds(DataOutputStream out, Collection<Long> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (Long id : ids) {
+            out.writeLong(id);
+        }
+    }
+
+    static void writeIds(DataOutputStream out, long[] ids) throws IOException {
+        out.writeInt(ids.length);
+        for (long id : ids) {
+            out.writeLong(id);
+        }
+    }
+
+    static long[] readIds(DataInputStream in) throws IOException {
+        long[] ids = new long[in.readInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = in.readLong();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,170 @@
+package com.study.springcore.partition;
+
+import com.study.springcore.domain.Member;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LocalMemberShard 하나를 루프백 소켓으로 내놓는 샤드 서버. 연결마다 스레드 하나가 요청을 차례로 처리한다.
+ *
+ * main 으로 띄우면 포트를 연 뒤 표준 출력에 "READY &lt;port&gt;" 를 한 줄 쓰고, 표준 입력이 닫히면 끝난다.
+ * RemoteMemberShard.launch 가 이렇게 자식 프로세스로 띄우므로, 부모가 죽으면 샤드 프로세스도 따라 끝난다.
+ */
+public class MemberShardServer implements Closeable {
+
+    static final String READY = "READY ";
+
+    private static final Logger log = LoggerFactory.getLogger(MemberShardServer.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final MemberShard shard;
+    private final ServerSocket serverSocket;
+
+    /**
+     * @param port 0 이면 빈 포트를 고른다. getPort() 로 확인한다.
+     */
+    public MemberShardServer(MemberShard shard, int port) throws IOException {
+        this.shard = shard;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void start() {
+        Thread acceptor = new Thread(this::accept, "member-shard-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread worker = new Thread(() -> serve(socket), "member-shard-" + getPort() + "-" + socket.getPort());
+                worker.setDaemon(true);
+                worker.start();
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("member shard accept failed", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+            int op;
+            while ((op = in.read()) != -1) {
+                handle((byte) op, in, out);
+                out.flush();
+            }
+        } catch (EOFException | SocketException e) {
+            // 클라이언트가 연결을 끊었다.
+        } catch (IOException e) {
+            log.warn("member shard connection failed", e);
+        }
+    }
+
+    /**
+     * 요청 본문을 끝까지 읽은 뒤에 샤드를 부른다. 그래서 샤드가 실패해도 오류 응답만 보내고 연결은 계속 쓸 수 있다.
+     */
+    private void handle(byte op, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (op) {
+            case MemberShardProtocol.SAVE_ALL: {
+                List<Member> members = MemberShardProtocol.readMembers(in);
+                respond(out, () -> shard.saveAll(members));
+                break;
+            }
+            case MemberShardProtocol.SAVE_ALL_IF_ABSENT: {
+                List<Member> members = MemberShardProtocol.readMembers(in);
+                respond(out, () -> shard.saveAllIfAbsent(members));
+                break;
+            }
+            case MemberShardProtocol.FIND_ALL: {
+                List<Long> ids = boxed(MemberShardProtocol.readIds(in));
+                Map<Long, Member> members;
+                try {
+                    members = shard.findAllById(ids);
+                } catch (RuntimeException e) {
+                    error(out, e);
+                    break;
+                }
+                out.writeByte(MemberShardProtocol.OK);
+                MemberShardProtocol.writeMembers(out, members.values());
+                break;
+            }
+            case MemberShardProtocol.REMOVE_ALL: {
+                List<Long> ids = boxed(MemberShardProtocol.readIds(in));
+                respond(out, () -> shard.removeAll(ids));
+                break;
+            }
+            case MemberShardProtocol.IDS:
+                out.writeByte(MemberShardProtocol.OK);
+                MemberShardProtocol.writeIds(out, shard.ids());
+                break;
+            case MemberShardProtocol.SIZE:
+                out.writeByte(MemberShardProtocol.OK);
+                out.writeInt(shard.size());
+                break;
+            default:
+                throw new IOException("unknown member shard op: " + op);
+        }
+    }
+
+    private static void respond(DataOutputStream out, Runnable action) throws IOException {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            error(out, e);
+            return;
+        }
+        out.writeByte(MemberShardProtocol.OK);
+    }
+
+    private static void error(DataOutputStream out, RuntimeException e) throws IOException {
+        log.warn("member shard request failed", e);
+        out.writeByte(MemberShardProtocol.ERROR);
+        out.writeUTF(String.valueOf(e));
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        try (MemberShardServer server = new MemberShardServer(new LocalMemberShard(), port)) {
+            server.start();
+            System.out.println(READY + server.getPort());
+            System.out.flush();
+            while (System.in.read() != -1) {
+                // 부모 프로세스가 표준 입력을 닫을 때까지 기다린다.
+            }
+        }
+    }
+}
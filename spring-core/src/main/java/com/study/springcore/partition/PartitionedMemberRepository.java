@@ -0,0 +1,422 @@
+package com.study.springcore.partition;
+
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 회원을 id 해시로 여러 MemberShard 에 나눠 담는 저장소. 샤드는 ConsistentHashRing 으로 고른다.
+ *
+ * 여러 건을 다루는 saveAll 과 findAllById 는 id 를 샤드별로 묶어 샤드마다 한 번만 부른다.
+ * executor 를 주면 샤드 여러 곳에 걸친 묶음을 동시에 보내므로, 원격 샤드의 왕복 시간이 샤드 수만큼 쌓이지 않는다.
+ *
+ * addShard 는 저장소를 멈추지 않고 샤드를 더한다. 새 링으로 바로 바꾸되 옛 링을 previous 로 남겨 두고,
+ * 자리를 옮기는 회원을 새 샤드로 복사한 다음 옛 샤드에서 지운다. 복사하는 동안
+ * <ul>
+ *     <li>쓰기는 새 링을 따르고, 복사는 이미 있는 id 를 덮어쓰지 않는다.</li>
+ *     <li>읽기는 새 링의 샤드에 없으면 옛 링의 샤드를 한 번 더 본다.</li>
+ * </ul>
+ * 옛 링으로 시작한 쓰기가 복사 뒤에 옛 샤드에 닿으면 사라지므로, 링을 바꾼 뒤에는 옛 링으로 시작한 연산이 모두 끝나기를
+ * 기다렸다가 복사한다. 지울 때도 같은 식으로, 옛 샤드를 볼 수 있는 읽기가 모두 끝난 뒤에 지운다.
+ */
+public class PartitionedMemberRepository implements MemberRepository, Closeable {
+
+    private static final int DEFAULT_VIRTUAL_NODES = 128;
+    private static final int MOVE_BATCH = 4096;
+    private static final int STRIPES = 64;
+    private static final int PADDING = 8;
+
+    private final Executor executor;
+    private final Object rebalanceLock = new Object();
+    private volatile Routing routing;
+
+    public PartitionedMemberRepository(List<? extends MemberShard> shards) {
+        this(shards, null);
+    }
+
+    /**
+     * @param executor 여러 샤드에 걸친 묶음 연산을 동시에 보낼 때 쓴다. null 이면 부른 스레드가 샤드를 차례로 부른다.
+     */
+    public PartitionedMemberRepository(List<? extends MemberShard> shards, Executor executor) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        this.executor = executor;
+        this.routing = new Routing(new ConsistentHashRing(shards.size(), DEFAULT_VIRTUAL_NODES),
+            shards.toArray(new MemberShard[0]), null);
+    }
+
+    @Override
+    public void save(Member member) {
+        Routing r = enter();
+        try {
+            r.shardFor(member.getId()).save(member);
+        } finally {
+            r.exit();
+        }
+    }
+
+    @Override
+    public void saveAll(List<Member> members) {
+        Routing r = enter();
+        try {
+            List<List<Member>> groups = groupMembers(r, members);
+            forEachShard(r.shards.length, shard -> {
+                if (!groups.get(shard).isEmpty()) {
+                    r.shards[shard].saveAll(groups.get(shard));
+                }
+            });
+        } finally {
+            r.exit();
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return findById(id.longValue());
+    }
+
+    @Override
+    public Member findById(long id) {
+        Routing r = enter();
+        try {
+            int owner = r.ring.shardFor(id);
+            Member member = r.shards[owner].findById(id);
+            if (member == null && r.previous != null) {
+                int previousOwner = r.previous.ring.shardFor(id);
+                if (previousOwner != owner) {
+                    member = r.previous.shards[previousOwner].findById(id);
+                }
+            }
+            return member;
+        } finally {
+            r.exit();
+        }
+    }
+
+    @Override
+    public Map<Long, Member> findAllById(Collection<Long> ids) {
+        Routing r = enter();
+        try {
+            Map<Long, Member> members = findAll(r, ids);
+            if (r.previous != null && members.size() < ids.size()) {
+                List<Long> missing = new ArrayList<>();
+                for (Long id : ids) {
+                    if (!members.containsKey(id) && r.previous.ring.shardFor(id) != r.ring.shardFor(id)) {
+                        missing.add(id);
+                    }
+                }
+                members.putAll(findAll(r.previous, missing));
+            }
+            return members;
+        } finally {
+            r.exit();
+        }
+    }
+
+    /**
+     * 샤드마다 id 를 먼저 받아 두고, 회원은 MOVE_BATCH 개씩 findAllById 로 가져와 흘려보낸다.
+     * parallel() 이면 묶음마다 나눠 가져오므로 원격 샤드 여러 곳에 동시에 요청한다.
+     *
+     * 재배치 중이거나 막 끝난 뒤에는 옛 샤드에 옮겨 간 회원의 사본이 남아 있다. 링이 가리키는 샤드가 아닌 곳의 id 는
+     * 주인 샤드에서 받은 id 에 없을 때만 내보내고, 주인 샤드의 id 를 먼저 받으므로 같은 회원이 두 번 나오지 않는다.
+     * id 는 라우팅에 등록한 채로 받으므로, 받는 동안 addShard 가 옛 샤드의 회원을 옮기거나 지우지 못한다.
+     * 받아 둔 id 가 가져오기 전에 다른 샤드로 옮겨졌으면 findById 로 다시 찾는다.
+     */
+    @Override
+    public Stream<Member> scan() {
+        Routing r = enter();
+        long[][] shardIds = new long[r.shards.length][];
+        try {
+            // 재배치로 회원을 받는 샤드는 늘 마지막 샤드이므로 뒤에서부터 받는다.
+            for (int shard = r.shards.length - 1; shard >= 0; shard--) {
+                shardIds[shard] = r.shards[shard].ids();
+            }
+        } finally {
+            r.exit();
+        }
+        long[][] sortedIds = new long[r.shards.length][];
+
+        List<ScanBatch> batches = new ArrayList<>();
+        for (int shard = 0; shard < r.shards.length; shard++) {
+            long[] ids = new long[shardIds[shard].length];
+            int owned = 0;
+            for (long id : shardIds[shard]) {
+                int owner = r.ring.shardFor(id);
+                if (owner == shard || !contains(sortedIds, shardIds, owner, id)) {
+                    ids[owned++] = id;
+                }
+            }
+            for (int from = 0; from < owned; from += MOVE_BATCH) {
+                batches.add(new ScanBatch(r.shards[shard], ids, from, Math.min(owned, from + MOVE_BATCH)));
+            }
+        }
+        return batches.stream().flatMap(this::fetch);
+    }
+
+    /**
+     * id 를 맡은 샤드 번호. 벤치마크가 샤드를 하나씩 채우며 샤드마다 메모리를 잴 때 쓴다.
+     */
+    int shardOf(long id) {
+        return routing.ring.shardFor(id);
+    }
+
+    public int shardCount() {
+        return routing.shards.length;
+    }
+
+    /**
+     * 샤드마다 담긴 회원 수. 원격 샤드는 요청 한 번씩이 든다.
+     */
+    public int[] shardSizes() {
+        MemberShard[] shards = routing.shards;
+        int[] sizes = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size();
+        }
+        return sizes;
+    }
+
+    /**
+     * 샤드를 하나 더하고, 새 샤드가 맡게 된 회원을 옮긴 뒤에 돌아온다. 그동안에도 읽기와 쓰기는 계속된다.
+     * 동시에 여러 번 불리면 하나씩 차례로 처리한다.
+     *
+     * @return 옮긴 회원 수
+     */
+    public long addShard(MemberShard shard) {
+        synchronized (rebalanceLock) {
+            Routing old = routing;
+            int added = old.shards.length;
+            MemberShard[] shards = Arrays.copyOf(old.shards, added + 1);
+            shards[added] = shard;
+            Routing migrating = new Routing(old.ring.withShard(), shards, old);
+
+            routing = migrating;
+            old.awaitInFlight();
+
+            // consistent hashing 이므로 자리를 옮기는 회원은 모두 새 샤드로 간다.
+            long moved = 0;
+            List<List<Long>> movedIds = new ArrayList<>(added);
+            for (int i = 0; i < added; i++) {
+                List<Long> ids = new ArrayList<>();
+                for (long id : old.shards[i].ids()) {
+                    if (migrating.ring.shardFor(id) == added) {
+                        ids.add(id);
+                    }
+                }
+                for (int from = 0; from < ids.size(); from += MOVE_BATCH) {
+                    List<Long> batch = ids.subList(from, Math.min(ids.size(), from + MOVE_BATCH));
+                    shard.saveAllIfAbsent(new ArrayList<>(old.shards[i].findAllById(batch).values()));
+                }
+                movedIds.add(ids);
+                moved += ids.size();
+            }
+
+            // 옛 샤드에서 지우기 전에, 옛 샤드를 한 번 더 볼 수 있는 migrating 의 읽기가 모두 끝나기를 기다린다.
+            routing = new Routing(migrating.ring, shards, null);
+            migrating.awaitInFlight();
+            for (int i = 0; i < added; i++) {
+                List<Long> ids = movedIds.get(i);
+                for (int from = 0; from < ids.size(); from += MOVE_BATCH) {
+                    old.shards[i].removeAll(ids.subList(from, Math.min(ids.size(), from + MOVE_BATCH)));
+                }
+            }
+            return moved;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (MemberShard shard : routing.shards) {
+            shard.close();
+        }
+    }
+
+    private Stream<Member> fetch(ScanBatch batch) {
+        List<Long> ids = new ArrayList<>(batch.to - batch.from);
+        for (int i = batch.from; i < batch.to; i++) {
+            ids.add(batch.ids[i]);
+        }
+        Map<Long, Member> found = batch.shard.findAllById(ids);
+        List<Member> members = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Member member = found.get(id);
+            if (member == null) {
+                member = findById(id.longValue());
+            }
+            if (member != null) {
+                members.add(member);
+            }
+        }
+        return members.stream();
+    }
+
+    /**
+     * owner 샤드에서 받은 id 에 id 가 있는지 본다. 정렬한 사본은 처음 필요할 때 만든다.
+     */
+    private static boolean contains(long[][] sortedIds, long[][] shardIds, int owner, long id) {
+        if (sortedIds[owner] == null) {
+            sortedIds[owner] = shardIds[owner].clone();
+            Arrays.sort(sortedIds[owner]);
+        }
+        return Arrays.binarySearch(sortedIds[owner], id) >= 0;
+    }
+
+    private Map<Long, Member> findAll(Routing r, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<List<Long>> groups = groupIds(r, ids);
+        List<Map<Long, Member>> results = new ArrayList<>(r.shards.length);
+        for (int i = 0; i < r.shards.length; i++) {
+            results.add(null);
+        }
+        forEachShard(r.shards.length, shard -> {
+            if (!groups.get(shard).isEmpty()) {
+                results.set(shard, r.shards[shard].findAllById(groups.get(shard)));
+            }
+        });
+
+        Map<Long, Member> members = new HashMap<>(ids.size() * 4 / 3 + 1);
+        for (Map<Long, Member> result : results) {
+            if (result != null) {
+                members.putAll(result);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * shard 번호마다 action 을 부른다. executor 가 있으면 첫 샤드는 부른 스레드에서, 나머지는 executor 에서 동시에 처리한다.
+     */
+    private void forEachShard(int shards, ShardAction action) {
+        if (executor == null || shards == 1) {
+            for (int shard = 0; shard < shards; shard++) {
+                action.run(shard);
+            }
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[shards - 1];
+        for (int shard = 1; shard < shards; shard++) {
+            int s = shard;
+            futures[shard - 1] = CompletableFuture.runAsync(() -> action.run(s), executor);
+        }
+        action.run(0);
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static List<List<Member>> groupMembers(Routing r, List<Member> members) {
+        List<List<Member>> groups = new ArrayList<>(r.shards.length);
+        for (int i = 0; i < r.shards.length; i++) {
+            groups.add(new ArrayList<>(members.size() / r.shards.length + 1));
+        }
+        for (Member member : members) {
+            groups.get(r.ring.shardFor(member.getId())).add(member);
+        }
+        return groups;
+    }
+
+    private static List<List<Long>> groupIds(Routing r, Collection<Long> ids) {
+        List<List<Long>> groups = new ArrayList<>(r.shards.length);
+        for (int i = 0; i < r.shards.length; i++) {
+            groups.add(new ArrayList<>(ids.size() / r.shards.length + 1));
+        }
+        for (Long id : ids) {
+            groups.get(r.ring.shardFor(id)).add(id);
+        }
+        return groups;
+    }
+
+    /**
+     * 지금 라우팅에 연산을 등록한다. 등록한 뒤에 라우팅이 바뀌었으면 물러나 새 라우팅으로 다시 등록하므로,
+     * addShard 가 라우팅을 바꾼 뒤 옛 라우팅의 연산 수를 세면 옛 링으로 시작한 연산을 빠뜨리지 않는다.
+     */
+    private Routing enter() {
+        while (true) {
+            Routing r = routing;
+            r.enter();
+            if (r == routing) {
+                return r;
+            }
+            r.exit();
+        }
+    }
+
+    private static final class ScanBatch {
+
+        final MemberShard shard;
+        final long[] ids;
+        final int from;
+        final int to;
+
+        ScanBatch(MemberShard shard, long[] ids, int from, int to) {
+            this.shard = shard;
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardAction {
+
+        void run(int shard);
+    }
+
+    /**
+     * 링과 샤드 목록. 바뀌지 않으며 addShard 가 새것으로 갈아 끼운다.
+     * inFlight 는 스레드 id 로 고른 칸에 진행 중인 연산 수를 센다. 한 스레드는 늘 같은 칸을 늘리고 줄이므로
+     * 칸마다 값은 그 칸에서 진행 중인 연산 수이고, 모든 칸을 한 번씩 읽어 0 이면 읽기 전에 시작한 연산은 모두 끝난 것이다.
+     * 칸 사이는 PADDING 만큼 띄워 서로 다른 칸을 쓰는 스레드가 캐시 라인을 다투지 않게 한다.
+     */
+    private static final class Routing {
+
+        final ConsistentHashRing ring;
+        final MemberShard[] shards;
+        final Routing previous;
+        private final AtomicLongArray inFlight = new AtomicLongArray(STRIPES * PADDING);
+
+        Routing(ConsistentHashRing ring, MemberShard[] shards, Routing previous) {
+            this.ring = ring;
+            this.shards = shards;
+            this.previous = previous;
+        }
+
+        MemberShard shardFor(long id) {
+            return shards[ring.shardFor(id)];
+        }
+
+        void enter() {
+            inFlight.getAndIncrement(stripe());
+        }
+
+        void exit() {
+            inFlight.getAndDecrement(stripe());
+        }
+
+        /**
+         * 원격 샤드 연산은 밀리초가 걸릴 수 있으므로 돌며 기다리지 않고 양보한다.
+         */
+        void awaitInFlight() {
+            for (int i = 0; i < STRIPES; i++) {
+                while (inFlight.get(i * PADDING) != 0) {
+                    Thread.yield();
+                }
+            }
+        }
+
+        private static int stripe() {
+            return ((int) ConsistentHashRing.mix(Thread.currentThread().getId()) & (STRIPES - 1)) * PADDING;
+        }
+    }
+}
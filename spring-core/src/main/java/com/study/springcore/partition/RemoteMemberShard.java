@@ -0,0 +1,261 @@
+package com.study.springcore.partition;
+
+import com.study.springcore.domain.Member;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MemberShardServer 에 루프백 소켓으로 붙는 샤드. 요청마다 쉬고 있는 연결을 하나 빌려 쓰고, 모자라면 새로 연다.
+ * 그래서 동시에 부르는 스레드 수만큼 연결이 생기고, 한 연결 위의 요청은 서로 기다리지 않는다.
+ * 응답을 끝까지 읽은 연결만 다시 쓰고, 도중에 실패한 연결은 닫는다. 샤드가 TIMEOUT_MILLIS 동안 답이 없으면 요청이 실패한다.
+ */
+public class RemoteMemberShard implements MemberShard {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteMemberShard.class);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final InetSocketAddress address;
+    private final Process process;
+    private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    public RemoteMemberShard(InetSocketAddress address) {
+        this(address, null);
+    }
+
+    private RemoteMemberShard(InetSocketAddress address, Process process) {
+        this.address = address;
+        this.process = process;
+    }
+
+    /**
+     * 지금 JVM 의 클래스패스로 MemberShardServer 를 자식 프로세스로 띄우고 붙는다. close() 하면 프로세스도 끝낸다.
+     * 준비 줄을 읽은 뒤에도 자식은 로그를 표준 출력에 쓰므로, 데몬 스레드가 그 뒤의 출력을 한 줄씩 이 JVM 의 로그로 옮긴다.
+     * 아무도 읽지 않으면 파이프가 차서 자식의 로그 쓰기가 막히고 요청도 멈춘다.
+     *
+     * @param jvmArgs 자식 JVM 옵션. 예: "-Xmx1g"
+     */
+    public static RemoteMemberShard launch(String... jvmArgs) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(jvmArgs));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MemberShardServer.class.getName());
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = output.readLine();
+        if (line == null || !line.startsWith(MemberShardServer.READY)) {
+            process.destroyForcibly();
+            throw new IOException("member shard process failed to start: " + line);
+        }
+        int port = Integer.parseInt(line.substring(MemberShardServer.READY.length()).trim());
+        // 준비 줄과 함께 버퍼에 읽힌 출력이 있을 수 있으므로 같은 reader 로 이어 읽는다.
+        Thread drain = new Thread(() -> drain(output, port), "member-shard-" + port + "-stdout");
+        drain.setDaemon(true);
+        drain.start();
+        return new RemoteMemberShard(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), process);
+    }
+
+    private static void drain(BufferedReader output, int port) {
+        try (output) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                log.info("[member-shard-{}] {}", port, line);
+            }
+        } catch (IOException ignored) {
+            // 자식 프로세스가 끝나 파이프가 닫혔다.
+        }
+    }
+
+    @Override
+    public void save(Member member) {
+        saveAll(List.of(member));
+    }
+
+    @Override
+    public void saveAll(List<Member> members) {
+        call(MemberShardProtocol.SAVE_ALL, out -> MemberShardProtocol.writeMembers(out, members), in -> null);
+    }
+
+    @Override
+    public void saveAllIfAbsent(List<Member> members) {
+        call(MemberShardProtocol.SAVE_ALL_IF_ABSENT, out -> MemberShardProtocol.writeMembers(out, members), in -> null);
+    }
+
+    @Override
+    public Member findById(long id) {
+        return findAllById(List.of(id)).get(id);
+    }
+
+    @Override
+    public Map<Long, Member> findAllById(Collection<Long> ids) {
+        return call(MemberShardProtocol.FIND_ALL, out -> MemberShardProtocol.writeIds(out, ids), in -> {
+            List<Member> found = MemberShardProtocol.readMembers(in);
+            Map<Long, Member> members = new HashMap<>(found.size() * 4 / 3 + 1);
+            for (Member member : found) {
+                members.put(member.getId(), member);
+            }
+            return members;
+        });
+    }
+
+    @Override
+    public void removeAll(Collection<Long> ids) {
+        call(MemberShardProtocol.REMOVE_ALL, out -> MemberShardProtocol.writeIds(out, ids), in -> null);
+    }
+
+    @Override
+    public long[] ids() {
+        return call(MemberShardProtocol.IDS, out -> {
+        }, MemberShardProtocol::readIds);
+    }
+
+    @Override
+    public int size() {
+        return call(MemberShardProtocol.SIZE, out -> {
+        }, DataInputStream::readInt);
+    }
+
+    /**
+     * launch 로 띄운 샤드 프로세스의 pid. 벤치마크가 이 pid 로 붙어 JMX 로 힙을 잰다.
+     *
+     * @throws IllegalStateException launch 로 띄우지 않은 샤드
+     */
+    public long pid() {
+        if (process == null) {
+            throw new IllegalStateException(this + " was not launched");
+        }
+        return process.pid();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+        if (process != null) {
+            try {
+                process.getOutputStream().close();
+            } catch (IOException ignored) {
+                // 이미 끝난 프로세스다.
+            }
+            process.destroy();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteMemberShard{" + address + '}';
+    }
+
+    private <T> T call(byte op, Request request, Response<T> response) {
+        if (closed) {
+            throw new IllegalStateException(this + " is closed");
+        }
+        Connection connection = idle.poll();
+        boolean reusable = false;
+        try {
+            if (connection == null) {
+                connection = new Connection(address);
+            }
+            connection.out.writeByte(op);
+            request.write(connection.out);
+            connection.out.flush();
+
+            if (connection.in.readByte() == MemberShardProtocol.ERROR) {
+                String message = connection.in.readUTF();
+                reusable = true;
+                throw new IllegalStateException(this + " failed: " + message);
+            }
+            T result = response.read(connection.in);
+            reusable = true;
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(this + " request failed", e);
+        } finally {
+            // 요청을 쓰다 말았거나 응답을 다 읽지 못한 연결은 예외의 종류와 상관없이 다시 쓰지 않는다.
+            if (connection != null) {
+                if (reusable) {
+                    release(connection);
+                } else {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private void release(Connection connection) {
+        idle.offer(connection);
+        if (closed && idle.remove(connection)) {
+            connection.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Request {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Response<T> {
+
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static final class Connection {
+
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(address, TIMEOUT_MILLIS);
+                socket.setSoTimeout(TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 닫다 실패해도 더 할 일이 없다.
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Member;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncMemberService {
+
+    CompletableFuture<Void> joinAsync(Member member);
+
+    CompletableFuture<Member> findMemberAsync(Long memberId);
+}
@@ -0,0 +1,33 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Member;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * MemberService 를 그대로 쓰되 호출을 serviceExecutor 로 넘겨서 호출한 스레드를 붙잡지 않는다.
+ */
+@Component("asyncMemberService")
+public class AsyncMemberServiceImpl implements AsyncMemberService {
+
+    private final MemberService memberService;
+    private final ExecutorService executor;
+
+    @Autowired
+    public AsyncMemberServiceImpl(MemberService memberService, ExecutorService serviceExecutor) {
+        this.memberService = memberService;
+        this.executor = serviceExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Void> joinAsync(Member member) {
+        return CompletableFuture.runAsync(() -> memberService.join(member), executor);
+    }
+
+    @Override
+    public CompletableFuture<Member> findMemberAsync(Long memberId) {
+        return CompletableFuture.supplyAsync(() -> memberService.findMember(memberId), executor);
+    }
+}
@@ -0,0 +1,13 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Order;
+import com.study.springcore.domain.OrderRequest;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncOrderService {
+
+    CompletableFuture<Order> createOrderAsync(long memberId, String itemName, long itemPrice);
+
+    CompletableFuture<List<Order>> createOrdersAsync(List<OrderRequest> requests);
+}
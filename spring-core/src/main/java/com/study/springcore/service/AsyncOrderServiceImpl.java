@@ -0,0 +1,33 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Order;
+import com.study.springcore.domain.OrderRequest;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component("asyncOrderService")
+public class AsyncOrderServiceImpl implements AsyncOrderService {
+
+    private final OrderService orderService;
+    private final ExecutorService executor;
+
+    @Autowired
+    public AsyncOrderServiceImpl(OrderService orderService, ExecutorService serviceExecutor) {
+        this.orderService = orderService;
+        this.executor = serviceExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Order> createOrderAsync(long memberId, String itemName, long itemPrice) {
+        return CompletableFuture.supplyAsync(
+            () -> orderService.createOrder(memberId, itemName, itemPrice), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Order>> createOrdersAsync(List<OrderRequest> requests) {
+        return CompletableFuture.supplyAsync(() -> orderService.createOrders(requests), executor);
+    }
+}
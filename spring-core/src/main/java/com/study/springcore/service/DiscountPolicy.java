@@ -4,6 +4,16 @@ import com.study.springcore.domain.Member;
 
 public interface DiscountPolicy {
 
-    int discount(Member member, int price);
+    /**
+     * 금액은 원 단위 long 이다.
+     */
+    long discount(Member member, long price);
+
+    /**
+     * 상품별 규칙이 있는 정책을 위한 확장점. 기본은 상품과 상관없이 discount(member, price) 와 같다.
+     */
+    default long discount(Member member, String itemName, long price) {
+        return discount(member, price);
+    }
 
 }
@@ -0,0 +1,68 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Grade;
+
+/**
+ * 가격 구간 [minPrice, maxPrice) 에 드는 주문에 적용할 할인 규칙.
+ * itemName 이 null 이면 모든 상품에 적용되고, 상품을 지정한 규칙이 있으면 그 규칙이 우선한다.
+ */
+public class DiscountRule {
+
+    private final Grade grade;
+    private final String itemName;
+    private final long minPrice;
+    private final long maxPrice;
+    private final long amount;
+    private final int percentage;
+
+    public DiscountRule(Grade grade, String itemName, long minPrice, long maxPrice, long amount, int percentage) {
+        if (minPrice >= maxPrice) {
+            throw new IllegalArgumentException("empty price band: [" + minPrice + ", " + maxPrice + ")");
+        }
+        if (amount < 0 || percentage < 0 || percentage > 100) {
+            throw new IllegalArgumentException("invalid discount: amount=" + amount + ", percentage=" + percentage);
+        }
+        this.grade = grade;
+        this.itemName = itemName;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.amount = amount;
+        this.percentage = percentage;
+    }
+
+    public static DiscountRule amount(Grade grade, long minPrice, long maxPrice, long amount) {
+        return new DiscountRule(grade, null, minPrice, maxPrice, amount, 0);
+    }
+
+    public static DiscountRule rate(Grade grade, long minPrice, long maxPrice, int percentage) {
+        return new DiscountRule(grade, null, minPrice, maxPrice, 0, percentage);
+    }
+
+    public DiscountRule forItem(String itemName) {
+        return new DiscountRule(grade, itemName, minPrice, maxPrice, amount, percentage);
+    }
+
+    public Grade getGrade() {
+        return grade;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public long getMinPrice() {
+        return minPrice;
+    }
+
+    public long getMaxPrice() {
+        return maxPrice;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public int getPercentage() {
+        return percentage;
+    }
+}
@@ -10,7 +10,7 @@ public class FixDiscountPolicy implements DiscountPolicy{
     private static final int DISCOUNT_AMOUNT = 1000;
 
     @Override
-    public int discount(Member member, int price) {
+    public long discount(Member member, long price) {
         if (member.getGrade() == Grade.VIP) {
             return DISCOUNT_AMOUNT;
         } else {
@@ -0,0 +1,348 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * id,name,grade 형식의 CSV 파일로 회원을 대량 등록한다. 첫 줄이 id,name,grade 머리글이면 건너뛰고, 파일 맨 앞의 UTF-8 BOM 도 무시한다.
+ *
+ * 호출한 스레드가 FileChannel 로 파일을 고정 크기 청크에 읽어 줄 경계에서 자르고, 파서 스레드들이 청크를 나눠
+ * 회원으로 바꿔 MemberRepository.saveAll 로 저장한다. 청크는 정해진 수만큼만 만들어 돌려 쓰므로
+ * 파서가 밀리면 읽는 쪽이 빈 청크를 기다리며 멈춘다. 그래서 파일 크기와 상관없이 청크 수 × 청크 크기만큼만 메모리를 쓴다.
+ */
+@Component("memberImporter")
+public class MemberImporter {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+    private static final Grade[] GRADES = Grade.values();
+    private static final byte[] HEADER = "id,name,grade".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final Chunk END = new Chunk(0);
+
+    private final MemberRepository repository;
+    private final int parsers;
+    private final int chunkSize;
+
+    @Autowired
+    public MemberImporter(MemberRepository repository) {
+        this(repository, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize 한 번에 읽는 바이트 수. 가장 긴 줄보다 커야 한다.
+     */
+    public MemberImporter(MemberRepository repository, int parsers, int chunkSize) {
+        if (parsers < 1) {
+            throw new IllegalArgumentException("parsers must be positive: " + parsers);
+        }
+        if (chunkSize < 64) {
+            throw new IllegalArgumentException("chunkSize is too small: " + chunkSize);
+        }
+        this.repository = repository;
+        this.parsers = parsers;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 진행 상황을 받는다. 읽는 스레드에서 1초에 한 번쯤 불리고, 모두 저장한 뒤에 한 번 더 불린다.
+     */
+    @FunctionalInterface
+    public interface Progress {
+
+        void report(long bytesRead, long totalBytes, long imported);
+    }
+
+    public long importCsv(Path path) throws IOException {
+        return importCsv(path, (bytesRead, totalBytes, imported) -> {
+        });
+    }
+
+    /**
+     * @return 저장한 회원 수
+     * @throws IOException 읽다 실패했거나 형식이 맞지 않을 때. 형식 오류는 메시지에 그 줄의 파일 오프셋을 담는다.
+     *                     실패하기 전에 저장된 회원은 그대로 남는다.
+     */
+    public long importCsv(Path path, Progress progress) throws IOException {
+        // 청크가 파서마다 둘씩 돌면 하나를 파싱하는 동안 다음 것을 읽어 둘 수 있다.
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(parsers * 2);
+        BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(parsers * 2 + parsers);
+        for (int i = 0; i < parsers * 2; i++) {
+            free.add(new Chunk(chunkSize));
+        }
+        LongAdder imported = new LongAdder();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Thread> workers = new ArrayList<>(parsers);
+        for (int i = 0; i < parsers; i++) {
+            Thread worker = new Thread(() -> parse(filled, free, imported, failure), "member-import-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        long bytesRead = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bytesRead = read(channel, free, filled, failure, imported, progress);
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            // filled 는 모든 청크와 END 를 함께 담을 만큼 크므로 add 가 실패하지 않는다.
+            for (int i = 0; i < parsers; i++) {
+                filled.add(END);
+            }
+            for (Thread worker : workers) {
+                joinUninterruptibly(worker);
+            }
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        progress.report(bytesRead, bytesRead, imported.sum());
+        return imported.sum();
+    }
+
+    /**
+     * 파일을 끝까지 청크로 나눠 filled 에 넣고 읽은 바이트 수를 돌려준다. 파서가 실패하면 거기서 멈춘다.
+     */
+    private long read(FileChannel channel, BlockingQueue<Chunk> free, BlockingQueue<Chunk> filled,
+        AtomicReference<Throwable> failure, LongAdder imported, Progress progress) throws IOException {
+        long totalBytes = channel.size();
+        long bytesRead = 0;
+        long lastReport = System.nanoTime();
+        byte[] carry = new byte[0];
+        int carryLength = 0;
+        boolean header = true;
+
+        try {
+            while (failure.get() == null) {
+                Chunk chunk = free.take();
+                System.arraycopy(carry, 0, chunk.bytes, 0, carryLength);
+                chunk.offset = bytesRead - carryLength;
+                ByteBuffer buffer = ByteBuffer.wrap(chunk.bytes, carryLength, chunk.bytes.length - carryLength);
+                int n = 0;
+                while (buffer.hasRemaining() && (n = channel.read(buffer)) != -1) {
+                    bytesRead += n;
+                }
+                int length = buffer.position();
+                boolean eof = n == -1;
+
+                // 마지막 줄바꿈 뒤는 다음 청크 앞으로 넘긴다.
+                int end = length;
+                if (!eof) {
+                    while (end > 0 && chunk.bytes[end - 1] != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        throw new IOException("line longer than " + chunkSize + " bytes at offset " + chunk.offset);
+                    }
+                }
+                carryLength = length - end;
+                if (carry.length < carryLength) {
+                    carry = new byte[chunk.bytes.length];
+                }
+                System.arraycopy(chunk.bytes, end, carry, 0, carryLength);
+
+                chunk.start = header ? skipHeader(chunk.bytes, end) : 0;
+                chunk.length = end;
+                header = false;
+                filled.put(chunk);
+
+                if (eof) {
+                    break;
+                }
+                long now = System.nanoTime();
+                if (now - lastReport >= REPORT_INTERVAL_NANOS) {
+                    progress.report(bytesRead, totalBytes, imported.sum());
+                    lastReport = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("member import interrupted after " + bytesRead + " bytes");
+        }
+        return bytesRead;
+    }
+
+    private void parse(BlockingQueue<Chunk> filled, BlockingQueue<Chunk> free, LongAdder imported,
+        AtomicReference<Throwable> failure) {
+        List<Member> batch = new ArrayList<>();
+        while (true) {
+            Chunk chunk;
+            try {
+                chunk = filled.take();
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, new InterruptedIOException("member import parser interrupted"));
+                return;
+            }
+            if (chunk == END) {
+                return;
+            }
+            try {
+                // 이미 실패했으면 청크를 파싱하지 않고 돌려주기만 해서 읽는 쪽이 멈추지 않게 한다.
+                if (failure.get() == null) {
+                    parseChunk(chunk, batch);
+                    repository.saveAll(batch);
+                    imported.add(batch.size());
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                batch.clear();
+                free.add(chunk);
+            }
+        }
+    }
+
+    private static void parseChunk(Chunk chunk, List<Member> batch) throws IOException {
+        byte[] bytes = chunk.bytes;
+        int i = chunk.start;
+        while (i < chunk.length) {
+            int lineStart = i;
+            if (bytes[i] == '\n' || bytes[i] == '\r') {
+                i++;
+                continue;
+            }
+
+            long id = 0;
+            boolean digits = false;
+            for (; i < chunk.length && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                if (id > (Long.MAX_VALUE - (bytes[i] - '0')) / 10) {
+                    throw malformed(chunk, lineStart, "id too large");
+                }
+                id = id * 10 + (bytes[i] - '0');
+                digits = true;
+            }
+            if (!digits || i == chunk.length || bytes[i] != ',') {
+                throw malformed(chunk, lineStart, "expected id followed by ','");
+            }
+
+            int nameStart = ++i;
+            while (i < chunk.length && bytes[i] != ',' && bytes[i] != '\n') {
+                i++;
+            }
+            if (i == chunk.length || bytes[i] != ',') {
+                throw malformed(chunk, lineStart, "expected name followed by ','");
+            }
+            String name = new String(bytes, nameStart, i - nameStart, StandardCharsets.UTF_8);
+
+            int gradeStart = ++i;
+            while (i < chunk.length && bytes[i] != '\n') {
+                i++;
+            }
+            int gradeEnd = i > gradeStart && bytes[i - 1] == '\r' ? i - 1 : i;
+            batch.add(new Member(id, name, grade(bytes, gradeStart, gradeEnd, chunk, lineStart)));
+            i++;
+        }
+    }
+
+    private static Grade grade(byte[] bytes, int from, int to, Chunk chunk, int lineStart) throws IOException {
+        for (Grade grade : GRADES) {
+            String name = grade.name();
+            if (name.length() != to - from) {
+                continue;
+            }
+            int k = 0;
+            while (k < name.length() && bytes[from + k] == name.charAt(k)) {
+                k++;
+            }
+            if (k == name.length()) {
+                return grade;
+            }
+        }
+        throw malformed(chunk, lineStart, "unknown grade '"
+            + new String(bytes, from, to - from, StandardCharsets.UTF_8) + "'");
+    }
+
+    /**
+     * 첫 청크에서 BOM 과 머리글을 건너뛴 위치를 돌려준다. 첫 줄이 머리글이 아니면 건너뛰지 않으므로 데이터 줄로 파싱되고,
+     * 형식이 맞지 않으면 그 자리에서 오류가 난다.
+     */
+    private static int skipHeader(byte[] bytes, int end) {
+        int start = startsWith(bytes, 0, end, BOM) ? BOM.length : 0;
+        if (!startsWith(bytes, start, end, HEADER)) {
+            return start;
+        }
+        int i = start + HEADER.length;
+        if (i < end && bytes[i] == '\r') {
+            i++;
+        }
+        if (i == end) {
+            return end;
+        }
+        return bytes[i] == '\n' ? i + 1 : start;
+    }
+
+    private static boolean startsWith(byte[] bytes, int from, int end, byte[] prefix) {
+        if (end - from < prefix.length) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length; k++) {
+            if (bytes[from + k] != prefix[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IOException malformed(Chunk chunk, int lineStart, String reason) {
+        return new IOException("malformed member CSV at offset " + (chunk.offset + lineStart) + ": " + reason);
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    thread.join();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 파일의 한 구간. bytes[start, length) 가 줄바꿈으로 끝나는 온전한 줄들이고, offset 은 bytes[0] 의 파일 위치다.
+     */
+    private static final class Chunk {
+
+        final byte[] bytes;
+        long offset;
+        int start;
+        int length;
+
+        Chunk(int size) {
+            this.bytes = new byte[size];
+        }
+    }
+}
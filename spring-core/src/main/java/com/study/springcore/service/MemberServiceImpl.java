@@ -6,7 +6,7 @@ import com.study.springcore.domain.MemoryMemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-@Component
+@Component("memberService")
 public class MemberServiceImpl implements MemberService {
 
     private final MemberRepository repository;
@@ -1,9 +1,23 @@
 package com.study.springcore.service;
 
 import com.study.springcore.domain.Order;
+import com.study.springcore.domain.OrderBuffer;
+import com.study.springcore.domain.OrderRequest;
+import java.util.List;
 
 public interface OrderService {
 
-    Order createOrder(Long memberId, String itemName, int itemPrice);
+    Order createOrder(long memberId, String itemName, long itemPrice);
+
+    /**
+     * 주문을 한꺼번에 만든다. 같은 회원은 한 번만 조회하고, 결과는 요청 순서를 따른다.
+     */
+    List<Order> createOrders(List<OrderRequest> requests);
+
+    /**
+     * 버퍼에 담긴 주문마다 할인 금액을 채운다. 주문 객체를 만들지 않으므로 대량 가격 계산에 쓴다.
+     * 원장이 있으면 createOrder 와 마찬가지로 행마다 기록하고, 한 번 부른 동안의 행은 같은 시각으로 남는다.
+     */
+    OrderBuffer priceOrders(OrderBuffer orders);
 
 }
@@ -4,27 +4,96 @@ import com.study.springcore.domain.Member;
 import com.study.springcore.domain.MemberRepository;
 import com.study.springcore.domain.MemoryMemberRepository;
 import com.study.springcore.domain.Order;
+import com.study.springcore.domain.OrderBuffer;
+import com.study.springcore.domain.OrderLedger;
+import com.study.springcore.domain.OrderRequest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-@Component
+@Component("orderService")
 public class OrderServiceImpl implements OrderService{
 
     private final DiscountPolicy discountPolicy;
     private final MemberRepository memberRepository;
+    // null 이면 만든 주문을 기록하지 않는다.
+    private final OrderLedger orderLedger;
 
-    @Autowired
     public OrderServiceImpl(DiscountPolicy discountPolicy,
         MemberRepository memberRepository) {
+        this(discountPolicy, memberRepository, (OrderLedger) null);
+    }
+
+    /**
+     * 원장은 EnableOrderLedger 로 켰을 때만 빈이 있다.
+     */
+    @Autowired
+    public OrderServiceImpl(DiscountPolicy discountPolicy,
+        MemberRepository memberRepository, ObjectProvider<OrderLedger> orderLedger) {
+        this(discountPolicy, memberRepository, orderLedger.getIfAvailable());
+    }
+
+    public OrderServiceImpl(DiscountPolicy discountPolicy,
+        MemberRepository memberRepository, OrderLedger orderLedger) {
         this.discountPolicy = discountPolicy;
         this.memberRepository = memberRepository;
+        this.orderLedger = orderLedger;
     }
 
     @Override
-    public Order createOrder(Long memberId, String itemName, int itemPrice) {
+    public Order createOrder(long memberId, String itemName, long itemPrice) {
         Member member = memberRepository.findById(memberId);
-        int discountPrice = discountPolicy.discount(member, itemPrice);
-        return new Order(memberId, itemName, itemPrice, discountPrice);
+        long discountPrice = discountPolicy.discount(member, itemName, itemPrice);
+        return record(new Order(memberId, itemName, itemPrice, discountPrice), member);
+    }
+
+    @Override
+    public List<Order> createOrders(List<OrderRequest> requests) {
+        Set<Long> memberIds = new HashSet<>();
+        for (OrderRequest request : requests) {
+            memberIds.add(request.getMemberId());
+        }
+        Map<Long, Member> members = memberRepository.findAllById(memberIds);
+
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (OrderRequest request : requests) {
+            Member member = members.get(request.getMemberId());
+            long discountPrice = discountPolicy.discount(member, request.getItemName(), request.getItemPrice());
+            orders.add(record(
+                new Order(request.getMemberId(), request.getItemName(), request.getItemPrice(), discountPrice),
+                member));
+        }
+        return orders;
+    }
+
+    @Override
+    public OrderBuffer priceOrders(OrderBuffer orders) {
+        long now = System.currentTimeMillis();
+        for (int row = 0; row < orders.size(); row++) {
+            long memberId = orders.getMemberId(row);
+            Member member = memberRepository.findById(memberId);
+            String itemName = orders.getItemName(row);
+            long itemPrice = orders.getItemPrice(row);
+            long discountPrice = discountPolicy.discount(member, itemName, itemPrice);
+            orders.setDiscountPrice(row, discountPrice);
+            if (orderLedger != null) {
+                orderLedger.append(memberId, itemName, itemPrice, discountPrice,
+                    member == null ? null : member.getGrade(), now);
+            }
+        }
+        return orders;
+    }
+
+    private Order record(Order order, Member member) {
+        if (orderLedger != null) {
+            orderLedger.append(order, member == null ? null : member.getGrade());
+        }
+        return order;
     }
 
 }
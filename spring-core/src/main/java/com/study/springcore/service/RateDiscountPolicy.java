@@ -9,9 +9,10 @@ public class RateDiscountPolicy implements DiscountPolicy{
     private static final int DISCOUNT_PERCENTAGE = 10;
 
     @Override
-    public int discount(Member member, int price) {
+    public long discount(Member member, long price) {
         if (member.getGrade() == Grade.VIP) {
-            return price * DISCOUNT_PERCENTAGE / 100;
+            // 곱셈이 long 범위를 넘으면 잘못된 할인액 대신 ArithmeticException 을 던진다.
+            return Math.multiplyExact(price, DISCOUNT_PERCENTAGE) / 100;
         } else {
             return 0;
         }
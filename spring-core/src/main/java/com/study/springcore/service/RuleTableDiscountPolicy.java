@@ -0,0 +1,157 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 등급/가격 구간/상품별 할인 규칙 수백 개를 한 번에 평가하는 정책.
+ * 규칙은 등급 ordinal 로 바로 찾는 배열과 가격 구간 시작값의 정렬 배열로 컴파일되고,
+ * 할인 한 번은 배열 접근과 이진 탐색 한 번으로 끝난다.
+ * replaceRules 는 새 테이블을 다 만든 뒤 volatile 필드 하나만 바꾸기 때문에 읽는 쪽은 잠금 없이 항상 완성된 테이블을 본다.
+ */
+public class RuleTableDiscountPolicy implements DiscountPolicy {
+
+    private volatile Table table;
+
+    public RuleTableDiscountPolicy(List<DiscountRule> rules) {
+        this.table = Table.compile(rules);
+    }
+
+    public void replaceRules(List<DiscountRule> rules) {
+        this.table = Table.compile(rules);
+    }
+
+    @Override
+    public long discount(Member member, long price) {
+        return table.byGrade[member.getGrade().ordinal()].discount(null, price);
+    }
+
+    @Override
+    public long discount(Member member, String itemName, long price) {
+        return table.byGrade[member.getGrade().ordinal()].discount(itemName, price);
+    }
+
+    private static final class Table {
+
+        private final GradeTable[] byGrade;
+
+        private Table(GradeTable[] byGrade) {
+            this.byGrade = byGrade;
+        }
+
+        static Table compile(List<DiscountRule> rules) {
+            Grade[] grades = Grade.values();
+            GradeTable[] byGrade = new GradeTable[grades.length];
+            for (Grade grade : grades) {
+                List<DiscountRule> common = new ArrayList<>();
+                Map<String, List<DiscountRule>> perItem = new HashMap<>();
+                for (DiscountRule rule : rules) {
+                    if (rule.getGrade() != grade) {
+                        continue;
+                    }
+                    if (rule.getItemName() == null) {
+                        common.add(rule);
+                    } else {
+                        perItem.computeIfAbsent(rule.getItemName(), name -> new ArrayList<>()).add(rule);
+                    }
+                }
+
+                Map<String, Bands> items = new HashMap<>();
+                perItem.forEach((itemName, itemRules) -> items.put(itemName, Bands.compile(itemRules)));
+                byGrade[grade.ordinal()] = new GradeTable(Bands.compile(common), items);
+            }
+            return new Table(byGrade);
+        }
+    }
+
+    private static final class GradeTable {
+
+        private final Bands common;
+        private final Map<String, Bands> items;
+
+        GradeTable(Bands common, Map<String, Bands> items) {
+            this.common = common;
+            this.items = items;
+        }
+
+        long discount(String itemName, long price) {
+            if (itemName != null && !items.isEmpty()) {
+                Bands bands = items.get(itemName);
+                if (bands != null) {
+                    int index = bands.find(price);
+                    if (index >= 0) {
+                        return bands.discount(index, price);
+                    }
+                }
+            }
+            int index = common.find(price);
+            return index < 0 ? 0 : common.discount(index, price);
+        }
+    }
+
+    /**
+     * 겹치지 않는 가격 구간들. starts 를 이진 탐색하고 같은 인덱스의 나머지 배열을 읽는다.
+     */
+    private static final class Bands {
+
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] amounts;
+        private final int[] percentages;
+
+        private Bands(long[] starts, long[] ends, long[] amounts, int[] percentages) {
+            this.starts = starts;
+            this.ends = ends;
+            this.amounts = amounts;
+            this.percentages = percentages;
+        }
+
+        static Bands compile(List<DiscountRule> rules) {
+            DiscountRule[] sorted = rules.toArray(new DiscountRule[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(DiscountRule::getMinPrice));
+            long[] starts = new long[sorted.length];
+            long[] ends = new long[sorted.length];
+            long[] amounts = new long[sorted.length];
+            int[] percentages = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i].getMinPrice() < ends[i - 1]) {
+                    throw new IllegalArgumentException("overlapping price bands for " + sorted[i].getGrade()
+                        + (sorted[i].getItemName() == null ? "" : "/" + sorted[i].getItemName())
+                        + " at " + sorted[i].getMinPrice());
+                }
+                starts[i] = sorted[i].getMinPrice();
+                ends[i] = sorted[i].getMaxPrice();
+                amounts[i] = sorted[i].getAmount();
+                percentages[i] = sorted[i].getPercentage();
+            }
+            return new Bands(starts, ends, amounts, percentages);
+        }
+
+        int find(long price) {
+            int length = starts.length;
+            if (length == 0) {
+                return -1;
+            }
+            // price 보다 크지 않은 시작값 중 가장 큰 것을 찾는다.
+            // 분기 대신 조건부 대입만 남겨 두면 예측 실패 없이 log2(n) 번 만에 끝난다.
+            int base = 0;
+            while (length > 1) {
+                int half = length >>> 1;
+                base = starts[base + half] <= price ? base + half : base;
+                length -= half;
+            }
+            return starts[base] <= price && price < ends[base] ? base : -1;
+        }
+
+        long discount(int index, long price) {
+            long discount = Math.addExact(amounts[index], Math.multiplyExact(price, percentages[index]) / 100);
+            return Math.min(discount, price);
+        }
+    }
+}
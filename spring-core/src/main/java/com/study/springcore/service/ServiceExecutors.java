@@ -0,0 +1,58 @@
+package com.study.springcore.service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기 서비스가 쓰는 실행기.
+ * 가상 스레드를 지원하는 JDK(21+) 에서는 작업마다 가상 스레드를 쓰고, 그렇지 않으면 크기가 정해진 스레드 풀을 쓴다.
+ * 소스 호환성을 11 로 유지하려고 가상 스레드 실행기는 리플렉션으로 찾는다.
+ */
+public final class ServiceExecutors {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private ServiceExecutors() {
+    }
+
+    public static ExecutorService newServiceExecutor() {
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        return newBoundedExecutor(Math.max(16, Runtime.getRuntime().availableProcessors() * 8));
+    }
+
+    /**
+     * 블로킹 I/O 를 기다리는 작업용 풀. 큐가 가득 차면 호출한 스레드가 직접 실행해서 자연스럽게 속도를 늦춘다.
+     */
+    public static ExecutorService newBoundedExecutor(int threads) {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "service-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // 프리뷰 기능으로만 있는 JDK 에서는 --enable-preview 없이 호출하면 실패한다.
+            return null;
+        }
+    }
+}
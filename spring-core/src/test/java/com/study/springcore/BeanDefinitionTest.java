@@ -2,16 +2,19 @@ package com.study.springcore;
 
 import com.study.springcore.service.MemberService;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
-import org.springframework.context.ApplicationContext;
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+@SpringJUnitConfig(AppConfig.class)
 class BeanDefinitionTest {
 
+    @Autowired
+    GenericApplicationContext ac;
+
     @Test
     void beanDefinition() {
-        AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(
-            AppConfig.class);
         String[] beanDefinitionNames = ac.getBeanDefinitionNames();
         for (String beanDefinitionName : beanDefinitionNames) {
             BeanDefinition beanDefinition = ac.getBeanDefinition(beanDefinitionName);
@@ -5,10 +5,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.study.springcore.domain.Grade;
 import com.study.springcore.domain.Member;
 import com.study.springcore.service.MemberService;
+import com.study.springcore.service.MemberServiceImpl;
+import com.study.springcore.service.OrderServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.stereotype.Component;
 
 class ComponentScanTest {
 
@@ -18,4 +23,13 @@ class ComponentScanTest {
         MemberService memberService = ac.getBean(MemberService.class);
         assertThat(memberService).isInstanceOf(MemberService.class);
     }
+
+    @Test
+    void scanUsesBuildTimeComponentIndex() {
+        CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(getClass().getClassLoader());
+
+        assertThat(index).isNotNull();
+        assertThat(index.getCandidateTypes("com.study.springcore", Component.class.getName()))
+            .contains(MemberServiceImpl.class.getName(), OrderServiceImpl.class.getName());
+    }
 }
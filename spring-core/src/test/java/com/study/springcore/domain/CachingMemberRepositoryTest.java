@@ -0,0 +1,75 @@
+package com.study.springcore.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CachingMemberRepositoryTest {
+
+    ConcurrentMemberRepository store = new ConcurrentMemberRepository();
+
+    @Test
+    void countsHitsAndMisses() {
+        //given
+        CachingMemberRepository repository = new CachingMemberRepository(store, 100);
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+
+        //when
+        repository.findById(1L);
+        repository.findById(1L);
+        repository.findById(1L);
+        repository.findById(2L);
+
+        //then
+        assertThat(repository.hitCount()).isEqualTo(2);
+        assertThat(repository.missCount()).isEqualTo(2);
+        assertThat(repository.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void staysWithinMaximumSize() {
+        CachingMemberRepository repository = new CachingMemberRepository(store, 64, 4);
+        for (long id = 0; id < 1000; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+            repository.findById(id);
+        }
+
+        assertThat(repository.size()).isEqualTo(64);
+        assertThat(repository.evictionCount()).isEqualTo(1000 - 64);
+    }
+
+    @Test
+    void scanDoesNotEvictHotMembers() {
+        CachingMemberRepository repository = new CachingMemberRepository(store, 10, 1);
+        for (long id = 0; id < 1000; id++) {
+            store.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        // 두 번 조회해서 protected 로 올린다.
+        for (long id = 0; id < 5; id++) {
+            repository.findById(id);
+            repository.findById(id);
+        }
+
+        for (long id = 100; id < 1000; id++) {
+            repository.findById(id);
+        }
+        long missesBefore = repository.missCount();
+        for (long id = 0; id < 5; id++) {
+            repository.findById(id);
+        }
+
+        assertThat(repository.missCount()).isEqualTo(missesBefore);
+    }
+
+    @Test
+    void saveWritesThroughCachedMember() {
+        CachingMemberRepository repository = new CachingMemberRepository(store, 10);
+        repository.save(new Member(1L, "before", Grade.BASIC));
+        repository.findById(1L);
+
+        repository.save(new Member(1L, "after", Grade.VIP));
+
+        assertThat(repository.findById(1L).getName()).isEqualTo("after");
+        assertThat(store.findById(1L).getName()).isEqualTo("after");
+    }
+}
@@ -0,0 +1,129 @@
+package com.study.springcore.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentMemberRepositoryTest {
+
+    ConcurrentMemberRepository repository = new ConcurrentMemberRepository();
+
+    @Test
+    void findByGradeReturnsOnlyThatGrade() {
+        //given
+        for (long id = 0; id < 100_000; id++) {
+            repository.save(new Member(id, "member" + id, id % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+
+        //when
+        Set<Long> vips = repository.findByGrade(Grade.VIP).parallel()
+            .map(Member::getId)
+            .collect(Collectors.toSet());
+
+        //then
+        assertThat(vips).hasSize(10_000).allMatch(id -> id % 10 == 0);
+        assertThat(repository.scan().parallel().count()).isEqualTo(100_000);
+    }
+
+    @Test
+    void gradeChangeMovesMemberBetweenIndexes() {
+        //given
+        Member basic = new Member(1L, "memberA", Grade.BASIC);
+        Member vip = new Member(1L, "memberA", Grade.VIP);
+        repository.save(basic);
+
+        //when
+        repository.save(vip);
+
+        //then
+        assertThat(repository.findById(1L)).isSameAs(vip);
+        assertThat(repository.findByGrade(Grade.VIP)).containsExactly(vip);
+        assertThat(repository.findByGrade(Grade.BASIC)).isEmpty();
+        assertThat(repository.scan()).containsExactly(vip);
+    }
+
+    @Test
+    void findByNullGradeReturnsMembersWithoutGrade() {
+        //given
+        Member none = new Member(1L, "memberA", null);
+        repository.save(none);
+        repository.save(new Member(2L, "memberB", Grade.VIP));
+
+        //when
+        Stream<Member> members = repository.findByGrade(null);
+
+        //then
+        assertThat(members).containsExactly(none);
+        assertThat(repository.findByGrade(Grade.VIP)).hasSize(1);
+    }
+
+    @Test
+    void scanDuringSavesNeverReturnsWrongGrade() throws InterruptedException {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    long id = i % 5_000;
+                    repository.save(new Member(id, "member" + id, i % 3 == 0 ? Grade.VIP : Grade.BASIC));
+                }
+            });
+        }
+
+        //when
+        executor.shutdown();
+        while (!executor.awaitTermination(10, TimeUnit.MILLISECONDS)) {
+            //then
+            assertThat(repository.findByGrade(Grade.VIP).parallel()).allMatch(m -> m.getGrade() == Grade.VIP);
+        }
+        assertThat(repository.scan().count()).isEqualTo(5_000);
+    }
+
+    @Test
+    void primitiveFindByIdSeesEverySavedMemberWhileTablesGrow() throws InterruptedException {
+        //given
+        Thread writer = new Thread(() -> {
+            for (long id = 0; id < 200_000; id++) {
+                repository.save(new Member(id, "member" + id, Grade.BASIC));
+            }
+        });
+
+        //when
+        writer.start();
+        while (writer.isAlive()) {
+            //then
+            assertThat(repository.findById(-1L)).isNull();
+            assertThat(repository.findById(0L)).satisfiesAnyOf(
+                m -> assertThat(m).isNull(),
+                m -> assertThat(m.getId()).isEqualTo(0L));
+        }
+        writer.join();
+        for (long id = 0; id < 200_000; id++) {
+            assertThat(repository.findById(id).getId()).isEqualTo(id);
+        }
+        assertThat(repository.findById(Long.valueOf(7L))).isSameAs(repository.findById(7L));
+    }
+
+    @Test
+    void sizeCountsEachIdOnceAcrossSegments() {
+        //given
+        for (long id = 0; id < 10_000; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        //when
+        for (long id = 0; id < 10_000; id += 2) {
+            repository.save(new Member(id, "member" + id, Grade.VIP));
+        }
+
+        //then
+        assertThat(repository.size()).isEqualTo(10_000);
+        assertThat(repository.findById(Long.valueOf(4L)).getGrade()).isEqualTo(Grade.VIP);
+    }
+}
@@ -0,0 +1,205 @@
+package com.study.springcore.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileMemberRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void survivesRestart() throws IOException {
+        //given
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            repository.save(new Member(1L, "memberA", Grade.VIP));
+            repository.save(new Member(2L, "회원B", Grade.BASIC));
+            repository.save(new Member(1L, "memberA2", Grade.BASIC));
+        }
+
+        //when
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            //then
+            assertThat(repository.size()).isEqualTo(2);
+            assertThat(repository.findById(1L).getName()).isEqualTo("memberA2");
+            assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+            assertThat(repository.findById(2L).getName()).isEqualTo("회원B");
+        }
+    }
+
+    @Test
+    void recoversFromTornLastRecord() throws IOException {
+        //given
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            repository.save(new Member(1L, "memberA", Grade.VIP));
+            repository.save(new Member(2L, "memberB", Grade.BASIC));
+        }
+        Path log = directory.resolve("members-0.log");
+        long tail = tailOffset(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            // 길이는 기록됐지만 CRC 와 본문은 다 쓰지 못하고 죽은 레코드
+            ByteBuffer torn = ByteBuffer.allocate(12).putInt(20).putInt(0xCAFE).putInt(3);
+            channel.write(torn.flip(), tail);
+        }
+
+        //when
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            repository.save(new Member(3L, "memberC", Grade.VIP));
+        }
+
+        //then
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            assertThat(repository.size()).isEqualTo(3);
+            assertThat(repository.findById(2L).getName()).isEqualTo("memberB");
+            assertThat(repository.findById(3L).getName()).isEqualTo("memberC");
+        }
+    }
+
+    @Test
+    void compactKeepsLatestAndDropsOldGeneration() throws IOException {
+        //given
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            for (long id = 0; id < 1000; id++) {
+                repository.save(new Member(id, "before" + id, Grade.BASIC));
+                repository.save(new Member(id, "after" + id, Grade.VIP));
+            }
+
+            //when
+            repository.compact();
+            repository.save(new Member(1000L, "afterCompact", Grade.BASIC));
+
+            assertThat(repository.findById(7L).getName()).isEqualTo("after7");
+        }
+
+        //then
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            assertThat(repository.size()).isEqualTo(1001);
+            assertThat(repository.findById(999L).getName()).isEqualTo("after999");
+            assertThat(repository.findById(1000L).getName()).isEqualTo("afterCompact");
+
+            repository.save(new Member(7L, "afterRestart", Grade.BASIC));
+            assertThat(repository.size()).isEqualTo(1001);
+            assertThat(repository.findById(7L).getName()).isEqualTo("afterRestart");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                .containsExactlyInAnyOrder("members-1.snapshot", "members-1.index", "members-1.log");
+        }
+    }
+
+    @Test
+    void compactsInBackgroundWithoutLosingWrites() throws IOException {
+        //given
+        try (FileMemberRepository repository = new FileMemberRepository(directory, 1 << 16)) {
+            //when
+            for (int round = 0; round < 20; round++) {
+                for (long id = 0; id < 2_000; id++) {
+                    repository.save(new Member(id, "member" + id + "-" + round, Grade.BASIC));
+                }
+                assertThat(repository.findById(1_999L).getName()).isEqualTo("member1999-" + round);
+            }
+            assertThat(repository.size()).isEqualTo(2_000);
+        }
+
+        //then
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            assertThat(repository.size()).isEqualTo(2_000);
+            for (long id = 0; id < 2_000; id++) {
+                assertThat(repository.findById(id).getName()).isEqualTo("member" + id + "-19");
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(path -> path.toString().endsWith(".snapshot"))).hasSizeLessThanOrEqualTo(1);
+        }
+    }
+
+    @Test
+    void scanReturnsLatestRecordAcrossSnapshotAndLog() throws IOException {
+        //given
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            for (long id = 0; id < 1_000; id++) {
+                repository.save(new Member(id, "member" + id, Grade.BASIC));
+            }
+            repository.compact();
+
+            //when
+            for (long id = 0; id < 1_000; id += 4) {
+                repository.save(new Member(id, "vip" + id, Grade.VIP));
+            }
+            repository.save(new Member(1_000L, "member1000", Grade.VIP));
+
+            //then
+            assertThat(repository.scan().map(Member::getId).distinct().count()).isEqualTo(1_001);
+            assertThat(repository.findByGrade(Grade.VIP))
+                .hasSize(251)
+                .allMatch(member -> member.getId() == 1_000L || member.getName().equals("vip" + member.getId()));
+        }
+    }
+
+    @Test
+    void scanSeesEachMemberOnceWhileLogsRotate() throws IOException {
+        //given
+        try (FileMemberRepository repository = new FileMemberRepository(directory, 1 << 16)) {
+            for (long id = 0; id < 1_000; id++) {
+                repository.save(new Member(id, "member" + id, Grade.BASIC));
+            }
+            repository.compact();
+            Iterator<Member> scan = repository.scan().iterator();
+            List<Long> ids = new ArrayList<>(List.of(scan.next().getId()));
+
+            //when
+            for (long id = 0; id < 20_000; id++) {
+                repository.save(new Member(id, "vip" + id, Grade.VIP));
+            }
+            repository.compact();
+            scan.forEachRemaining(member -> ids.add(member.getId()));
+
+            //then
+            assertThat(ids).doesNotHaveDuplicates();
+            assertThat(ids.stream().filter(id -> id < 1_000)).hasSize(1_000);
+        }
+    }
+
+    @Test
+    void keepsNullGrade() throws IOException {
+        //given
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            repository.save(new Member(1L, "memberA", null));
+        }
+
+        //when
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            //then
+            assertThat(repository.findById(1L).getGrade()).isNull();
+            assertThat(repository.findById(1L).getName()).isEqualTo("memberA");
+        }
+    }
+
+    private static long tailOffset(Path log) throws IOException {
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            long offset = 0;
+            while (true) {
+                header.clear();
+                channel.read(header, offset);
+                int length = header.flip().getInt();
+                if (length == 0) {
+                    return offset;
+                }
+                offset += 8 + length;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.study.springcore.domain;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HashMap 저장소와 OffHeapMemberRepository 의 메모리 사용량을 비교한다.
+ * 50M 까지 돌리려면 -Xmx8g -XX:MaxDirectMemorySize=4g 정도가 필요하다.
+ *
+ * 사용법: MemberFootprintDemo [건수...]  (기본값 1000000 10000000 50000000)
+ */
+public class MemberFootprintDemo {
+
+    public static void main(String[] args) {
+        long[] counts = args.length == 0
+            ? new long[]{1_000_000, 10_000_000, 50_000_000}
+            : Arrays.stream(args).mapToLong(Long::parseLong).toArray();
+
+        System.out.printf("%12s %16s %16s %16s%n", "members", "HashMap heap", "off-heap heap", "off-heap direct");
+        for (long count : counts) {
+            long hashMapHeap = measureHashMap(count);
+            long[] offHeap = measureOffHeap(count);
+            System.out.printf("%12d %13d MB %13d MB %13d MB%n",
+                count, hashMapHeap >> 20, offHeap[0] >> 20, offHeap[1] >> 20);
+        }
+    }
+
+    private static long measureHashMap(long count) {
+        long before = usedHeap();
+        Map<Long, Member> store = new HashMap<>();
+        for (long id = 0; id < count; id++) {
+            store.put(id, new Member(id, "member" + id, Grade.BASIC));
+        }
+        long used = usedHeap() - before;
+        System.out.println("  (HashMap size " + store.size() + ")");
+        return used;
+    }
+
+    private static long[] measureOffHeap(long count) {
+        long before = usedHeap();
+        long directBefore = usedDirect();
+        OffHeapMemberRepository repository = new OffHeapMemberRepository((int) count);
+        for (long id = 0; id < count; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        long used = usedHeap() - before;
+        long direct = usedDirect() - directBefore;
+        System.out.println("  (off-heap size " + repository.size() + ")");
+        return new long[]{used, direct};
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+            .filter(pool -> pool.getName().equals("direct"))
+            .mapToLong(BufferPoolMXBean::getMemoryUsed)
+            .sum();
+    }
+}
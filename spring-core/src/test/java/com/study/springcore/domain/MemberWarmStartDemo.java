@@ -0,0 +1,35 @@
+package com.study.springcore.domain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * FileMemberRepository 에 회원을 채운 뒤 다시 열어서 기동 시간을 잰다.
+ *
+ * 사용법: MemberWarmStartDemo [디렉터리] [건수]  (기본값 임시 디렉터리, 10000000)
+ */
+public class MemberWarmStartDemo {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : Files.createTempDirectory("members");
+        long count = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000;
+
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            long start = System.nanoTime();
+            for (long id = 0; id < count; id++) {
+                repository.save(new Member(id, "member" + id, Grade.values()[(int) (id & 1)]));
+            }
+            System.out.printf("write %d members: %d ms%n", count, (System.nanoTime() - start) / 1_000_000);
+            repository.compact();
+        }
+
+        long start = System.nanoTime();
+        try (FileMemberRepository repository = new FileMemberRepository(directory)) {
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("warm start %d members: %d ms%n", repository.size(), elapsed / 1_000_000);
+            System.out.println(repository.findById(count - 1).getName());
+        }
+    }
+}
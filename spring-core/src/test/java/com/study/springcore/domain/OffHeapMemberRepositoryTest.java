@@ -0,0 +1,135 @@
+package com.study.springcore.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OffHeapMemberRepositoryTest {
+
+    OffHeapMemberRepository repository = new OffHeapMemberRepository(16);
+
+    @Test
+    void saveAndFind() {
+        //given
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+        repository.save(new Member(2L, "회원B", Grade.BASIC));
+
+        //when
+        Member memberA = repository.findById(1L);
+        Member memberB = repository.findById(2L);
+
+        //then
+        assertThat(memberA.getId()).isEqualTo(1L);
+        assertThat(memberA.getName()).isEqualTo("memberA");
+        assertThat(memberA.getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberB.getName()).isEqualTo("회원B");
+        assertThat(memberB.getGrade()).isEqualTo(Grade.BASIC);
+        assertThat(repository.findById(3L)).isNull();
+    }
+
+    @Test
+    void overwriteKeepsLatestRecord() {
+        repository.save(new Member(1L, "before", Grade.BASIC));
+        repository.save(new Member(1L, "after", Grade.VIP));
+
+        Member member = repository.findById(1L);
+
+        assertThat(repository.size()).isEqualTo(1);
+        assertThat(member.getName()).isEqualTo("after");
+        assertThat(member.getGrade()).isEqualTo(Grade.VIP);
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        for (long id = -50_000; id < 50_000; id++) {
+            repository.save(new Member(id, "member" + id, Grade.values()[(int) (id & 1)]));
+        }
+
+        assertThat(repository.size()).isEqualTo(100_000);
+        for (long id = -50_000; id < 50_000; id++) {
+            assertThat(repository.findById(id).getName()).isEqualTo("member" + id);
+        }
+    }
+
+    @Test
+    void findByGradeSeesLatestRecords() {
+        //given
+        for (long id = 0; id < 10_000; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        //when
+        for (long id = 0; id < 10_000; id += 10) {
+            repository.save(new Member(id, "vip" + id, Grade.VIP));
+        }
+
+        //then
+        assertThat(repository.scan().parallel().count()).isEqualTo(10_000);
+        assertThat(repository.findByGrade(Grade.VIP).parallel())
+            .hasSize(1_000)
+            .allMatch(member -> member.getId() % 10 == 0 && member.getName().equals("vip" + member.getId()));
+    }
+
+    @Test
+    void scanSeesEachMemberOnceWhileIndexGrows() {
+        //given
+        for (long id = 0; id < 1_000; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        Iterator<Member> scan = repository.scan().iterator();
+        List<Long> ids = new ArrayList<>(List.of(scan.next().getId()));
+
+        //when
+        for (long id = 0; id < 100_000; id++) {
+            repository.save(new Member(id, "vip" + id, Grade.VIP));
+        }
+        scan.forEachRemaining(member -> ids.add(member.getId()));
+
+        //then
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids.stream().filter(id -> id < 1_000)).hasSize(1_000);
+    }
+
+    @Test
+    void updatesDoNotGrowOffHeapWithoutBound() {
+        //given
+        String longName = "x".repeat(300);
+
+        //when
+        for (int round = 0; round < 100; round++) {
+            for (long id = 0; id < 20_000; id++) {
+                String name = round % 2 == 0 ? longName + id : "member" + id;
+                repository.save(new Member(id, name, Grade.values()[round & 1]));
+            }
+        }
+
+        //then
+        // 덧붙이기만 했다면 300MB 를 넘는다.
+        assertThat(repository.offHeapBytes()).isLessThanOrEqualTo(3L << 26);
+        assertThat(repository.size()).isEqualTo(20_000);
+        for (long id = 0; id < 20_000; id++) {
+            assertThat(repository.findById(id).getName()).isEqualTo("member" + id);
+            assertThat(repository.findById(id).getGrade()).isEqualTo(Grade.VIP);
+        }
+    }
+
+    @Test
+    void keepsNullName() {
+        repository.save(new Member(0L, null, Grade.BASIC));
+
+        assertThat(repository.findById(0L).getName()).isNull();
+    }
+
+    @Test
+    void keepsNullGrade() {
+        repository.save(new Member(0L, "member0", null));
+        repository.saveAll(List.of(new Member(1L, "member1", null), new Member(2L, "member2", Grade.VIP)));
+
+        assertThat(repository.findById(0L).getGrade()).isNull();
+        assertThat(repository.findById(1L).getGrade()).isNull();
+        assertThat(repository.findById(2L).getGrade()).isEqualTo(Grade.VIP);
+    }
+}
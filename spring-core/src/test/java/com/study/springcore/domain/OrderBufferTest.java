@@ -0,0 +1,43 @@
+package com.study.springcore.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class OrderBufferTest {
+
+    @Test
+    void totalsDoNotOverflowInt() {
+        OrderBuffer orders = new OrderBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            orders.add(i, "item", Integer.MAX_VALUE);
+            orders.setDiscountPrice(i, 1);
+        }
+
+        assertThat(orders.totalPrice()).isEqualTo(4L * (Integer.MAX_VALUE - 1));
+        assertThat(orders.calcPrice(0)).isEqualTo(Integer.MAX_VALUE - 1);
+    }
+
+    @Test
+    void clearReusesRows() {
+        OrderBuffer orders = new OrderBuffer(1);
+        orders.add(1L, "itemA", 1000);
+        orders.add(2L, "itemB", 2000);
+
+        orders.clear();
+        int row = orders.add(3L, "itemC", 3000);
+
+        assertThat(row).isEqualTo(0);
+        assertThat(orders.size()).isEqualTo(1);
+        assertThat(orders.getMemberId(0)).isEqualTo(3L);
+        assertThatThrownBy(() -> orders.getItemName(1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void calcPriceIsOverflowChecked() {
+        Order order = new Order(1L, "itemA", Long.MIN_VALUE, 1);
+
+        assertThatThrownBy(order::calcPrice).isInstanceOf(ArithmeticException.class);
+    }
+}
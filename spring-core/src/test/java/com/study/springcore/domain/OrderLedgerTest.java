@@ -0,0 +1,106 @@
+package com.study.springcore.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OrderLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void totalsByGradeAndTimeWindowAcrossSealedSegments() throws IOException {
+        //given
+        OrderLedger ledger = new OrderLedger(directory);
+        int orders = OrderLedger.SEGMENT_SIZE * 2 + 100;
+        for (int i = 0; i < orders; i++) {
+            Grade grade = i % 10 == 0 ? Grade.VIP : Grade.BASIC;
+            ledger.append(new Order(i, "item" + i % 3, 10000, grade == Grade.VIP ? 1000 : 0), grade, i);
+        }
+
+        //when
+        OrderTotals beforeSealed = ledger.totals();
+        ledger.awaitSealed();
+        OrderTotals all = ledger.totals();
+        OrderTotals vip = ledger.totals(Grade.VIP);
+        OrderTotals window = ledger.totals(Grade.VIP, 100, 200);
+
+        //then
+        assertThat(beforeSealed.getCount()).isEqualTo(orders);
+        assertThat(beforeSealed.revenue()).isEqualTo(all.revenue());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+        assertThat(all.getCount()).isEqualTo(orders);
+        assertThat(all.revenue()).isEqualTo(orders * 10000L - (orders + 9) / 10 * 1000L);
+        assertThat(vip.getCount()).isEqualTo((orders + 9) / 10);
+        assertThat(vip.getDiscountPrice()).isEqualTo(vip.getCount() * 1000);
+        assertThat(window.getCount()).isEqualTo(10);
+        int row = OrderLedger.SEGMENT_SIZE + 1;
+        assertThat(ledger.get(row).getItemName()).isEqualTo("item" + row % 3);
+    }
+
+    @Test
+    void concurrentAppendsAreAllCounted() throws InterruptedException {
+        //given
+        OrderLedger ledger = new OrderLedger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    ledger.append(new Order(i, "itemA", 1000, 100), Grade.BASIC);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        //then
+        assertThat(ledger.totals().getCount()).isEqualTo(400_000);
+        assertThat(ledger.totals().revenue()).isEqualTo(400_000L * 900);
+    }
+
+    @Test
+    void keepsPricesAboveIntRange() {
+        //given
+        OrderLedger ledger = new OrderLedger();
+        long price = Integer.MAX_VALUE + 1L;
+
+        //when
+        for (int i = 0; i < OrderLedger.SEGMENT_SIZE + 1; i++) {
+            ledger.append(new Order(i, "itemA", price, 1L), Grade.VIP);
+        }
+        ledger.awaitSealed();
+
+        //then
+        assertThat(ledger.get(0).getItemPrice()).isEqualTo(price);
+        assertThat(ledger.get(OrderLedger.SEGMENT_SIZE).getItemPrice()).isEqualTo(price);
+        assertThat(ledger.totals().getItemPrice()).isEqualTo((OrderLedger.SEGMENT_SIZE + 1) * price);
+    }
+
+    @Test
+    void totalsRejectOverflowingSums() {
+        //given
+        OrderLedger ledger = new OrderLedger();
+
+        //when
+        ledger.append(new Order(1L, "itemA", Long.MAX_VALUE, 0), Grade.VIP);
+        ledger.append(new Order(2L, "itemA", 1, 0), Grade.VIP);
+
+        //then
+        assertThat(ledger.get(0).getItemPrice()).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(ledger::totals).isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.study.springcore.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.study.springcore.AppConfig;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.service.MemberService;
+import com.study.springcore.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+class InstrumentationPostProcessorTest {
+
+    @Test
+    void recordsServiceLatencyAndGradeCounters() {
+        try (AnnotationConfigApplicationContext ac =
+            new AnnotationConfigApplicationContext(AppConfig.class, MetricsEnabled.class)) {
+            MemberService memberService = ac.getBean("memberService", MemberService.class);
+            OrderService orderService = ac.getBean("orderService", OrderService.class);
+
+            //when
+            memberService.join(new Member(1L, "memberA", Grade.VIP));
+            memberService.join(new Member(2L, "memberB", Grade.BASIC));
+            memberService.findMember(1L);
+            orderService.createOrder(1L, "itemA", 10000);
+            orderService.createOrder(2L, "itemA", 10000);
+
+            //then
+            MetricsSnapshot snapshot = ac.getBean(ServiceMetrics.class).snapshot();
+            assertThat(memberService).isInstanceOf(InstrumentedMemberService.class);
+            assertThat(snapshot.latencies().get("memberService.join").count()).isEqualTo(2);
+            assertThat(snapshot.latencies().get("memberService.findMember").count()).isEqualTo(1);
+            assertThat(snapshot.latencies().get("orderService.createOrder").count()).isEqualTo(2);
+            assertThat(snapshot.counters()).containsEntry("memberService.join.grade.VIP", 1L)
+                .containsEntry("memberService.join.grade.BASIC", 1L)
+                .containsEntry("fixDiscountPolicy.calls.grade.VIP", 1L)
+                .containsEntry("fixDiscountPolicy.discounted.grade.VIP", 1L)
+                .containsEntry("fixDiscountPolicy.discounted.grade.BASIC", 0L);
+        }
+    }
+
+    @Test
+    void leavesBeansAloneWhenNotEnabled() {
+        try (AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class)) {
+            assertThat(ac.getBean("memberService")).isNotInstanceOf(InstrumentedMemberService.class);
+            assertThat(ac.getBeansOfType(ServiceMetrics.class)).isEmpty();
+        }
+    }
+
+    @EnableServiceMetrics
+    static class MetricsEnabled {
+    }
+}
@@ -0,0 +1,57 @@
+package com.study.springcore.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueWithinThreePercent() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 1000, 123_456, 10_000_000_000L, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            long highest = LatencyHistogram.highestValue(bucket);
+
+            assertThat(bucket).isBetween(0, LatencyHistogram.BUCKETS - 1);
+            assertThat(highest).isGreaterThanOrEqualTo(value);
+            assertThat((double) (highest - value)).isLessThanOrEqualTo(value * 0.032);
+        }
+    }
+
+    @Test
+    void reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10_000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(10_000);
+        assertThat((double) snapshot.percentile(50)).isCloseTo(5_000_000, within(5_000_000 * 0.032));
+        assertThat((double) snapshot.percentile(99)).isCloseTo(9_900_000, within(9_900_000 * 0.032));
+        assertThat(snapshot.mean()).isCloseTo(5_000_500, within(1.0));
+        assertThat(snapshot.max()).isGreaterThanOrEqualTo(10_000_000);
+    }
+
+    @Test
+    void keepsEveryRecordUnderConcurrency() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(histogram.snapshot().count()).isEqualTo(800_000);
+    }
+}
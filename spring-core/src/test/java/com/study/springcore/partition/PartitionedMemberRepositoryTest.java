@@ -0,0 +1,274 @@
+package com.study.springcore.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PartitionedMemberRepositoryTest {
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void membersAreSpreadAcrossShards() {
+        //given
+        PartitionedMemberRepository repository = new PartitionedMemberRepository(localShards(4), executor);
+
+        //when
+        repository.saveAll(members(0, 40_000, Grade.BASIC));
+
+        //then
+        assertThat(IntStream.of(repository.shardSizes()).sum()).isEqualTo(40_000);
+        assertThat(repository.shardSizes()).allMatch(size -> size > 40_000 / 4 / 2);
+        assertThat(repository.findById(123L).getName()).isEqualTo("member123");
+        assertThat(repository.findById(40_000L)).isNull();
+    }
+
+    @Test
+    void findAllByIdCollectsFromEveryShard() {
+        //given
+        PartitionedMemberRepository repository = new PartitionedMemberRepository(localShards(3), executor);
+        repository.saveAll(members(0, 1_000, Grade.VIP));
+
+        //when
+        Map<Long, Member> found = repository.findAllById(List.of(1L, 500L, 999L, 1_000L));
+
+        //then
+        assertThat(found).containsOnlyKeys(1L, 500L, 999L);
+        assertThat(found.get(500L).getGrade()).isEqualTo(Grade.VIP);
+    }
+
+    @Test
+    void addShardMovesOnlyMembersOwnedByNewShard() {
+        //given
+        List<MemberShard> shards = localShards(3);
+        PartitionedMemberRepository repository = new PartitionedMemberRepository(shards);
+        repository.saveAll(members(0, 30_000, Grade.BASIC));
+        int[] before = repository.shardSizes();
+
+        //when
+        long moved = repository.addShard(new LocalMemberShard());
+
+        //then
+        int[] after = repository.shardSizes();
+        assertThat(after[3]).isEqualTo((int) moved).isBetween(30_000 / 4 / 2, 30_000 / 4 * 2);
+        for (int i = 0; i < 3; i++) {
+            assertThat(after[i]).isLessThanOrEqualTo(before[i]);
+        }
+        assertThat(IntStream.of(after).sum()).isEqualTo(30_000);
+        assertThat(repository.findAllById(ids(0, 30_000))).hasSize(30_000);
+    }
+
+    @Test
+    void writesDuringAddShardAreNotLost() throws InterruptedException {
+        //given
+        PartitionedMemberRepository repository = new PartitionedMemberRepository(localShards(2));
+        repository.saveAll(members(0, 20_000, Grade.BASIC));
+        AtomicInteger misses = new AtomicInteger();
+
+        //when
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                for (long id = thread; id < 20_000; id += 4) {
+                    repository.save(new Member(id, "member" + id, Grade.VIP));
+                    if (repository.findById(id) == null) {
+                        misses.incrementAndGet();
+                    }
+                }
+            });
+        }
+        repository.addShard(new LocalMemberShard());
+        repository.addShard(new LocalMemberShard());
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        //then
+        assertThat(misses).hasValue(0);
+        Map<Long, Member> found = repository.findAllById(ids(0, 20_000));
+        assertThat(found).hasSize(20_000);
+        assertThat(found.values()).allMatch(member -> member.getGrade() == Grade.VIP);
+        assertThat(IntStream.of(repository.shardSizes()).sum()).isEqualTo(20_000);
+    }
+
+    @Test
+    void scanDuringAddShardReturnsEachMemberOnce() throws InterruptedException {
+        //given
+        PartitionedMemberRepository repository = new PartitionedMemberRepository(localShards(2), executor);
+        repository.saveAll(members(0, 20_000, Grade.BASIC));
+        repository.saveAll(members(20_000, 21_000, Grade.VIP));
+        AtomicInteger wrongScans = new AtomicInteger();
+
+        //when
+        for (int t = 0; t < 2; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 20; i++) {
+                    List<Long> ids = repository.scan().parallel().map(Member::getId).collect(Collectors.toList());
+                    if (ids.size() != 21_000 || new HashSet<>(ids).size() != 21_000) {
+                        wrongScans.incrementAndGet();
+                    }
+                }
+            });
+        }
+        repository.addShard(new LocalMemberShard());
+        repository.addShard(new LocalMemberShard());
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        //then
+        assertThat(wrongScans).hasValue(0);
+        assertThat(repository.findByGrade(Grade.VIP).map(Member::getId)).hasSize(1_000).allMatch(id -> id >= 20_000);
+    }
+
+    @Test
+    void addShardWaitsForScanToCollectIds() throws InterruptedException {
+        //given
+        BlockingIdsShard blocking = new BlockingIdsShard();
+        PartitionedMemberRepository repository = new PartitionedMemberRepository(List.of(blocking, new LocalMemberShard()));
+        repository.saveAll(members(0, 20_000, Grade.BASIC));
+
+        //when
+        CompletableFuture<List<Long>> scan = CompletableFuture.supplyAsync(
+            () -> repository.scan().map(Member::getId).collect(Collectors.toList()), executor);
+        blocking.entered.await();
+        CompletableFuture<Long> addition = CompletableFuture.supplyAsync(
+            () -> repository.addShard(new LocalMemberShard()), executor);
+        Thread.sleep(300); // 스캔이 등록되지 않았다면 이 사이에 addShard 가 옛 샤드에서 회원을 지운다.
+        boolean addedWhileCollecting = addition.isDone();
+        blocking.release.countDown();
+
+        //then
+        assertThat(addedWhileCollecting).isFalse();
+        assertThat(scan.join()).hasSize(20_000).doesNotHaveDuplicates();
+        assertThat(addition.join()).isPositive();
+        assertThat(IntStream.of(repository.shardSizes()).sum()).isEqualTo(20_000);
+    }
+
+    @Test
+    void remoteShardsSpeakOverLoopback() throws IOException {
+        //given
+        List<MemberShardServer> servers = new ArrayList<>();
+        List<MemberShard> shards = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            MemberShardServer server = new MemberShardServer(new LocalMemberShard(), 0);
+            server.start();
+            servers.add(server);
+            shards.add(new RemoteMemberShard(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort())));
+        }
+        MemberShardServer added = new MemberShardServer(new LocalMemberShard(), 0);
+        added.start();
+        servers.add(added);
+
+        try (PartitionedMemberRepository repository = new PartitionedMemberRepository(shards, executor)) {
+            repository.saveAll(members(0, 5_000, Grade.VIP));
+            repository.save(new Member(5_000L, null, null));
+
+            //when
+            repository.addShard(new RemoteMemberShard(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), added.getPort())));
+
+            //then
+            assertThat(repository.findAllById(ids(0, 5_001))).hasSize(5_001);
+            assertThat(repository.findById(42L).getName()).isEqualTo("member42");
+            assertThat(repository.findById(5_000L).getGrade()).isNull();
+            assertThat(repository.shardSizes()).hasSize(3).allMatch(size -> size > 0);
+            assertThat(repository.scan().count()).isEqualTo(5_001);
+        } finally {
+            for (MemberShardServer server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    @Test
+    void remoteShardDropsConnectionThatFailedWhileWriting() throws IOException {
+        //given
+        try (MemberShardServer server = new MemberShardServer(new LocalMemberShard(), 0)) {
+            server.start();
+            RemoteMemberShard shard = new RemoteMemberShard(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+            List<Member> members = members(0, 10_000, Grade.BASIC);
+            members.add(new Member(10_000L, "x".repeat(70_000), Grade.BASIC));
+
+            //when
+            assertThatThrownBy(() -> shard.saveAll(members)).isInstanceOf(IllegalArgumentException.class);
+            shard.saveAll(members(0, 100, Grade.VIP));
+
+            //then
+            assertThat(shard.size()).isEqualTo(100);
+            assertThat(shard.findById(99L).getGrade()).isEqualTo(Grade.VIP);
+            shard.close();
+        }
+    }
+
+    private static List<MemberShard> localShards(int count) {
+        List<MemberShard> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new LocalMemberShard());
+        }
+        return shards;
+    }
+
+    private static List<Member> members(long from, long to, Grade grade) {
+        List<Member> members = new ArrayList<>();
+        for (long id = from; id < to; id++) {
+            members.add(new Member(id, "member" + id, grade));
+        }
+        return members;
+    }
+
+    private static List<Long> ids(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id < to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * 처음 불린 ids() 를 release 가 열릴 때까지 붙잡아 스캔이 id 를 받는 도중에 재배치가 끼어들게 한다.
+     */
+    private static final class BlockingIdsShard extends LocalMemberShard {
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicBoolean armed = new AtomicBoolean(true);
+
+        @Override
+        public long[] ids() {
+            if (armed.compareAndSet(true, false)) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.ids();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.study.springcore.service;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import com.study.springcore.domain.Order;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * 조회마다 지연이 있는 저장소 앞에서 주문 10,000 건을 한꺼번에 띄워 놓고 처리량을 잰다.
+ * JDK 21+ 에서는 가상 스레드로, 그 이전에는 고정 크기 풀로 돈다.
+ *
+ * 사용법: AsyncOrderLoadDemo [동시 주문 수] [조회 지연 ms]  (기본값 10000, 20)
+ */
+public class AsyncOrderLoadDemo {
+
+    public static void main(String[] args) {
+        int inFlight = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 20;
+
+        MemberRepository repository = new SlowMemberRepository(new ConcurrentMemberRepository(), latencyMillis);
+        for (long id = 0; id < 1000; id++) {
+            repository.save(new Member(id, "member" + id, id % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        OrderService orderService = new OrderServiceImpl(new FixDiscountPolicy(), repository);
+
+        ExecutorService executor = ServiceExecutors.newServiceExecutor();
+        try {
+            AsyncOrderService asyncOrderService = new AsyncOrderServiceImpl(orderService, executor);
+            long start = System.nanoTime();
+            CompletableFuture<?>[] orders = new CompletableFuture<?>[inFlight];
+            for (int i = 0; i < inFlight; i++) {
+                orders[i] = asyncOrderService.createOrderAsync((long) (i % 1000), "item" + i, 10_000);
+            }
+            CompletableFuture.allOf(orders).join();
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("executor: %s%n", executor.getClass().getSimpleName());
+            System.out.printf("%d orders with %d ms lookups: %d ms, %.0f orders/s%n",
+                inFlight, latencyMillis, elapsed / 1_000_000, inFlight * 1e9 / elapsed);
+            System.out.println("first discount = " + ((Order) orders[0].join()).getDiscountPrice());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static class SlowMemberRepository implements MemberRepository {
+
+        private final MemberRepository delegate;
+        private final long latencyMillis;
+
+        SlowMemberRepository(MemberRepository delegate, long latencyMillis) {
+            this.delegate = delegate;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public void save(Member member) {
+            delegate.save(member);
+        }
+
+        @Override
+        public Member findById(Long id) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return delegate.findById(id);
+        }
+
+        @Override
+        public Stream<Member> scan() {
+            return delegate.scan();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.study.springcore.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.study.springcore.AppConfig;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+class AsyncServiceTest {
+
+    AnnotationConfigApplicationContext ac;
+    AsyncMemberService asyncMemberService;
+    AsyncOrderService asyncOrderService;
+
+    @BeforeEach
+    void beforeEach() {
+        ac = new AnnotationConfigApplicationContext(AppConfig.class);
+        asyncMemberService = ac.getBean("asyncMemberService", AsyncMemberService.class);
+        asyncOrderService = ac.getBean("asyncOrderService", AsyncOrderService.class);
+    }
+
+    @AfterEach
+    void afterEach() {
+        ac.close();
+    }
+
+    @Test
+    void joinAndFindAsync() {
+        //given
+        Member member = new Member(1L, "memberA", Grade.VIP);
+
+        //when
+        Member found = asyncMemberService.joinAsync(member)
+            .thenCompose(ignored -> asyncMemberService.findMemberAsync(1L))
+            .join();
+
+        //then
+        assertThat(found).isSameAs(member);
+    }
+
+    @Test
+    void createOrderAsync() {
+        //given
+        asyncMemberService.joinAsync(new Member(1L, "memberA", Grade.VIP)).join();
+
+        //when
+        Order order = asyncOrderService.createOrderAsync(1L, "itemA", 10000).join();
+
+        //then
+        assertThat(order.getDiscountPrice()).isEqualTo(1000);
+    }
+
+    @Test
+    void syncServicesStayInjectable() {
+        assertThat(ac.getBean("memberService")).isInstanceOf(MemberService.class);
+        assertThat(ac.getBean("orderService")).isInstanceOf(OrderService.class);
+    }
+}
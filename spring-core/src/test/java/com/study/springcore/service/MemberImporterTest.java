@@ -0,0 +1,76 @@
+package com.study.springcore.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MemberImporterTest {
+
+    @TempDir
+    Path directory;
+
+    ConcurrentMemberRepository repository = new ConcurrentMemberRepository();
+
+    @Test
+    void importsEveryRowAcrossChunks() throws IOException {
+        //given
+        Path csv = directory.resolve("members.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,name,grade\n");
+            for (int id = 0; id < 10_000; id++) {
+                writer.write(id + ",회원" + id + "," + (id % 10 == 0 ? "VIP" : "BASIC") + (id % 2 == 0 ? "\r\n" : "\n"));
+            }
+            writer.write("10000,last,VIP");
+        }
+        AtomicLong reported = new AtomicLong();
+
+        //when
+        // 청크를 작게 잡아 줄이 청크 경계에 걸치게 한다.
+        long imported = new MemberImporter(repository, 3, 256)
+            .importCsv(csv, (bytesRead, totalBytes, members) -> reported.set(members));
+
+        //then
+        assertThat(imported).isEqualTo(10_001);
+        assertThat(reported.get()).isEqualTo(10_001);
+        assertThat(repository.findById(7L).getName()).isEqualTo("회원7");
+        assertThat(repository.findById(10_000L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(repository.findByGrade(Grade.VIP).count()).isEqualTo(1_001);
+    }
+
+    @Test
+    void reportsOffsetOfMalformedRow() throws IOException {
+        Path csv = Files.writeString(directory.resolve("bad.csv"), "1,memberA,VIP\n2,memberB,GOLD\n");
+
+        assertThatThrownBy(() -> new MemberImporter(repository, 2, 64).importCsv(csv))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("offset 14")
+            .hasMessageContaining("GOLD");
+    }
+
+    @Test
+    void skipsOnlyTheExactHeader() throws IOException {
+        //given
+        Path withBom = Files.writeString(directory.resolve("bom.csv"), "\uFEFFid,name,grade\r\n1,memberA,VIP\n");
+        Path typo = Files.writeString(directory.resolve("typo.csv"), "x1,memberA,VIP\n2,memberB,BASIC\n");
+
+        //when
+        long imported = new MemberImporter(repository, 2, 64).importCsv(withBom);
+
+        //then
+        assertThat(imported).isEqualTo(1);
+        assertThat(repository.findById(1L).getName()).isEqualTo("memberA");
+        assertThatThrownBy(() -> new MemberImporter(repository, 2, 64).importCsv(typo))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("offset 0");
+    }
+}
@@ -0,0 +1,69 @@
+package com.study.springcore.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.study.springcore.AppConfig;
+import com.study.springcore.domain.ConcurrentMemberRepository;
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import com.study.springcore.domain.MemberRepository;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+class MemberServiceConcurrencyTest {
+
+    static final int THREADS = 32;
+    static final int MEMBERS_PER_THREAD = 10_000;
+
+    MemberService memberService;
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        ApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class);
+        memberService = ac.getBean(MemberService.class);
+        memberRepository = ac.getBean(MemberRepository.class);
+    }
+
+    @Test
+    void concurrentRepositoryIsPrimary() {
+        assertThat(memberRepository).isInstanceOf(ConcurrentMemberRepository.class);
+    }
+
+    @Test
+    void concurrentJoinLosesNoUpdates() throws InterruptedException {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        for (int t = 0; t < THREADS; t++) {
+            long base = (long) t * MEMBERS_PER_THREAD;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long id = base; id < base + MEMBERS_PER_THREAD; id++) {
+                    memberService.join(new Member(id, "member" + id, Grade.BASIC));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        //then
+        for (long id = 0; id < (long) THREADS * MEMBERS_PER_THREAD; id++) {
+            assertThat(memberService.findMember(id)).isNotNull();
+        }
+    }
+}
@@ -4,17 +4,29 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.study.springcore.AppConfig;
+import com.study.springcore.domain.EnableOrderLedger;
 import com.study.springcore.domain.Grade;
 import com.study.springcore.domain.Member;
 import com.study.springcore.domain.Order;
+import com.study.springcore.domain.OrderBuffer;
+import com.study.springcore.domain.OrderLedger;
+import com.study.springcore.domain.OrderRequest;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
 
 class OrderServiceTest {
 
+    @TempDir
+    Path directory;
+
     MemberService memberService;
     OrderService orderService;
 
@@ -23,6 +35,7 @@ class OrderServiceTest {
         ApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class);
         memberService = ac.getBean("memberService", MemberService.class);
         orderService = ac.getBean("orderService", OrderService.class);
+        assertThat(ac.getBeansOfType(OrderLedger.class)).isEmpty();
     }
 
     @Test
@@ -40,4 +53,78 @@ class OrderServiceTest {
       
     }
 
-}
\ No newline at end of file
+    @Test
+    void testCreateOrders() {
+        //given
+        memberService.join(new Member(1L, "memberA", Grade.VIP));
+        memberService.join(new Member(2L, "memberB", Grade.BASIC));
+        List<OrderRequest> requests = List.of(
+            new OrderRequest(1L, "itemA", 10000),
+            new OrderRequest(2L, "itemB", 20000),
+            new OrderRequest(1L, "itemC", 30000));
+
+        //when
+        List<Order> orders = orderService.createOrders(requests);
+
+        //then
+        assertThat(orders).extracting(Order::getDiscountPrice).containsExactly(1000L, 0L, 1000L);
+        assertThat(orders).extracting(Order::calcPrice).containsExactly(9000L, 20000L, 29000L);
+    }
+
+    @Test
+    void createdOrdersAreRecordedInLedger() {
+        try (AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext()) {
+            //given
+            ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("ledger",
+                Map.of("springcore.order-ledger.directory", directory.toString())));
+            ac.register(AppConfig.class, LedgerEnabled.class);
+            ac.refresh();
+            MemberService memberService = ac.getBean("memberService", MemberService.class);
+            OrderService orderService = ac.getBean("orderService", OrderService.class);
+            OrderLedger orderLedger = ac.getBean(OrderLedger.class);
+            memberService.join(new Member(1L, "memberA", Grade.VIP));
+            memberService.join(new Member(2L, "memberB", Grade.BASIC));
+
+            //when
+            orderService.createOrder(1L, "itemA", 10000);
+            orderService.createOrders(List.of(
+                new OrderRequest(2L, "itemB", 20000),
+                new OrderRequest(1L, "itemC", 30000)));
+            OrderBuffer orders = new OrderBuffer(2);
+            orders.add(1L, "itemD", 40000);
+            orders.add(2L, "itemE", 50000);
+            orderService.priceOrders(orders);
+
+            //then
+            assertThat(orderLedger.totals().getCount()).isEqualTo(5);
+            assertThat(orderLedger.totals().revenue()).isEqualTo(9000L + 20000L + 29000L + 39000L + 50000L);
+            assertThat(orderLedger.totals(Grade.VIP).getDiscountPrice()).isEqualTo(3000);
+            assertThat(orderLedger.get(2).getItemName()).isEqualTo("itemC");
+            assertThat(orderLedger.get(4).getItemName()).isEqualTo("itemE");
+        }
+    }
+
+    @Test
+    void testPriceOrders() {
+        //given
+        memberService.join(new Member(1L, "memberA", Grade.VIP));
+        memberService.join(new Member(2L, "memberB", Grade.BASIC));
+        OrderBuffer orders = new OrderBuffer(2);
+        orders.add(1L, "itemA", 10000);
+        orders.add(2L, "itemB", 20000);
+        orders.add(1L, "itemC", Integer.MAX_VALUE);
+
+        //when
+        orderService.priceOrders(orders);
+
+        //then
+        assertThat(orders.getDiscountPrice(0)).isEqualTo(1000);
+        assertThat(orders.getDiscountPrice(1)).isEqualTo(0);
+        assertThat(orders.totalDiscount()).isEqualTo(2000);
+        assertThat(orders.totalPrice()).isEqualTo(9000L + 20000L + Integer.MAX_VALUE - 1000L);
+    }
+
+    @EnableOrderLedger
+    static class LedgerEnabled {
+    }
+}
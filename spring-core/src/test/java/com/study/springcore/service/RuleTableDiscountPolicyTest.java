@@ -0,0 +1,61 @@
+package com.study.springcore.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.study.springcore.domain.Grade;
+import com.study.springcore.domain.Member;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RuleTableDiscountPolicyTest {
+
+    Member vip = new Member(1L, "vip", Grade.VIP);
+    Member basic = new Member(2L, "basic", Grade.BASIC);
+
+    RuleTableDiscountPolicy policy = new RuleTableDiscountPolicy(List.of(
+        DiscountRule.amount(Grade.VIP, 0, 10_000, 500),
+        DiscountRule.rate(Grade.VIP, 10_000, 100_000, 10),
+        DiscountRule.rate(Grade.VIP, 100_000, Integer.MAX_VALUE, 20),
+        DiscountRule.amount(Grade.BASIC, 50_000, Integer.MAX_VALUE, 1000),
+        DiscountRule.rate(Grade.VIP, 0, 1_000_000, 50).forItem("itemA")));
+
+    @Test
+    void appliesBandByGradeAndPrice() {
+        assertThat(policy.discount(vip, 5_000)).isEqualTo(500);
+        assertThat(policy.discount(vip, 10_000)).isEqualTo(1_000);
+        assertThat(policy.discount(vip, 200_000)).isEqualTo(40_000);
+        assertThat(policy.discount(basic, 49_999)).isEqualTo(0);
+        assertThat(policy.discount(basic, 50_000)).isEqualTo(1000);
+    }
+
+    @Test
+    void itemRuleOverridesCommonRule() {
+        assertThat(policy.discount(vip, "itemA", 20_000)).isEqualTo(10_000);
+        assertThat(policy.discount(vip, "itemA", 2_000_000)).isEqualTo(400_000);
+        assertThat(policy.discount(vip, "itemB", 20_000)).isEqualTo(2_000);
+    }
+
+    @Test
+    void rateDoesNotOverflowForLargePrices() {
+        assertThat(policy.discount(vip, Integer.MAX_VALUE - 1)).isEqualTo((Integer.MAX_VALUE - 1) / 5);
+    }
+
+    @Test
+    void replaceRulesSwapsWholeTable() {
+        policy.replaceRules(List.of(DiscountRule.amount(Grade.BASIC, 0, Integer.MAX_VALUE, 100)));
+
+        assertThat(policy.discount(basic, 5_000)).isEqualTo(100);
+        assertThat(policy.discount(vip, 5_000)).isEqualTo(0);
+    }
+
+    @Test
+    void rejectsOverlappingBands() {
+        List<DiscountRule> rules = List.of(
+            DiscountRule.amount(Grade.VIP, 0, 10_000, 500),
+            DiscountRule.amount(Grade.VIP, 5_000, 20_000, 700));
+
+        assertThatThrownBy(() -> policy.replaceRules(rules)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(policy.discount(vip, 5_000)).isEqualTo(500);
+    }
+}
@@ -4,15 +4,19 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.study.springcore.AppConfig;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+// 테스트 메서드마다 컨테이너를 새로 만들지 않고 스프링 테스트 컨텍스트 캐시에서 하나를 같이 쓴다.
+@SpringJUnitConfig(AppConfig.class)
 public class SingletonTest {
 
+    @Autowired
+    ApplicationContext ac;
+
     @Test
     void singletonTest() throws Exception {
-        ApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class);
-
         MemberService memberService1 = ac.getBean("memberService", MemberService.class);
         MemberService memberService2 = ac.getBean("memberService", MemberService.class);
 
@@ -21,25 +25,18 @@ public class SingletonTest {
 
     @Test
     void callMemberRepository() {
-        ApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class);
-
         MemberService memberService = ac.getBean("memberService", MemberService.class);
         OrderService orderService = ac.getBean("orderService", OrderService.class);
     }
 
     @Test
     void testCGLIB() {
-        ApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class);
-
         AppConfig bean = ac.getBean(AppConfig.class);
         System.out.println("AppConfig = " + bean.getClass());
     }
 
     @Test
     void testBeanList() {
-        ApplicationContext ac = new AnnotationConfigApplicationContext(
-            AppConfig.class);
-
         String[] beanDefinitionNames = ac.getBeanDefinitionNames();
         for (String beanDefinitionName : beanDefinitionNames) {
             System.out.println("beanDefinitionName = " + beanDefinitionName);